@@ -0,0 +1,65 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  AutoParallel.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Runs AutoSteps at the same time, e.g. intake while
+//            driving.  Every unfinished step is ticked each cycle
+//            and the group is finished when all of them are.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  The steps must not drive the same motors.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+class AutoParallel implements AutoStep {
+
+    private final AutoStep steps[];
+    private final boolean finished[];
+
+    AutoParallel(AutoStep... steps) {
+        this.steps = steps;
+        finished = new boolean[steps.length];
+    }
+
+    public void start() {
+        int i;
+
+        for (i = 0; i < steps.length; i++) {
+            finished[i] = false;
+            steps[i].start();
+        }
+    }
+
+    public boolean execute() {
+        boolean all = true;
+        int i;
+
+        for (i = 0; i < steps.length; i++) {
+            if (finished[i] == true) {
+                continue;
+            }
+            if (steps[i].execute() == true) {
+                steps[i].end(false);
+                finished[i] = true;
+            } else {
+                all = false;
+            }
+        }
+        return all;
+    }
+
+    public void end(boolean interrupted) {
+        int i;
+
+        for (i = 0; i < steps.length; i++) {
+            if (finished[i] == false) {
+                steps[i].end(true);
+                finished[i] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  AutoRace.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Runs AutoSteps at the same time until the first one
+//            finishes, then interrupts the rest.  Used to run an
+//            action that never finishes on its own, such as
+//            Shooter.intakeContStep(), for as long as a drive or
+//            turn takes.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  The steps must not drive the same motors.  If several
+//            finish in the same tick they all end normally.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+class AutoRace implements AutoStep {
+
+    private final AutoStep steps[];
+    private final boolean finished[];
+
+    AutoRace(AutoStep... steps) {
+        this.steps = steps;
+        finished = new boolean[steps.length];
+    }
+
+    public void start() {
+        int i;
+
+        for (i = 0; i < steps.length; i++) {
+            finished[i] = false;
+            steps[i].start();
+        }
+    }
+
+    public boolean execute() {
+        boolean any = false;
+        int i;
+
+        for (i = 0; i < steps.length; i++) {
+            if (steps[i].execute() == true) {
+                steps[i].end(false);
+                finished[i] = true;
+                any = true;
+            }
+        }
+        if (any == true) {
+            end(true);
+        }
+        return any;
+    }
+
+    public void end(boolean interrupted) {
+        int i;
+
+        for (i = 0; i < steps.length; i++) {
+            if (finished[i] == false) {
+                steps[i].end(true);
+                finished[i] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  AutoSequence.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Runs AutoSteps one after the other.  The autonomous
+//            routines in Autonomous are AutoSequences.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  When a step finishes the next one is started and
+//            ticked in the same cycle, so a routine does not lose
+//            20msec between steps.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+class AutoSequence implements AutoStep {
+
+    private final AutoStep steps[];
+    private int current;
+    private boolean started;
+
+    AutoSequence(AutoStep... steps) {
+        this.steps = steps;
+    }
+
+    public void start() {
+        current = 0;
+        started = false;
+    }
+
+    public boolean execute() {
+        while (current < steps.length) {
+            if (started == false) {
+                steps[current].start();
+                started = true;
+            }
+            if (steps[current].execute() == false) {
+                return false;
+            }
+            steps[current].end(false);
+            started = false;
+            current++;
+        }
+        return true;
+    }
+
+    public void end(boolean interrupted) {
+        if ((current < steps.length) && (started == true)) {
+            steps[current].end(true);
+            started = false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  AutoStep.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  One action of an autonomous routine (drive to a count,
+//            turn to an angle, shoot, intake) written so that it
+//            advances one tick per 20msec cycle instead of looping
+//            until it is finished.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  Robot calls execute() once from each
+//            autonomousPeriodic(), after taking the cycle's
+//            SensorSnapshot, so the main loop, the watchdog and
+//            NetworkTables keep running during autonomous.  Steps
+//            read the robot's state from Robot.sensors.
+//
+//            start() is called once, just before the first
+//            execute().  execute() returns true when the step is
+//            finished.  end() is called once after that, or early
+//            with interrupted true if the routine is cancelled,
+//            and must leave the step's motors off unless leaving
+//            them running is the point, as in
+//            Shooter.spinUpStep().
+//
+//            AutoSequence runs steps one after the other,
+//            AutoParallel runs them together until all finish and
+//            AutoRace until the first finishes.  All three are
+//            steps themselves, so they nest.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+interface AutoStep {
+
+    void start();
+
+    boolean execute();
+
+    void end(boolean interrupted);
+}
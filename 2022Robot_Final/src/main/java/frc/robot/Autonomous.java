@@ -1,70 +1,90 @@
 package frc.robot;
 
+// Each routine returns its steps, Robot runs them one tick per
+// autonomousPeriodic(). See AutoStep.
 public class Autonomous extends Robot {
 
     Autonomous() {
 
     }
 
-    public void driveOutOfAreaFwd() {
-        drive.driveToTargetFwd(-100000.0);
+    public AutoStep driveOutOfAreaFwd() {
+        return new AutoSequence(
+                drive.driveStep(-100000.0));
     }
 
-    public void driveOutOfAreaBwd() {
-        drive.driveToTargetBwd(100000.0);
+    public AutoStep driveOutOfAreaBwd() {
+        return new AutoSequence(
+                drive.driveStep(100000.0));
     }
 
-    public void wallLeft2Ball() {
-        shooter.dropIntake();
-        shooter.autoShoot(0.40);
-        drive.driveToTargetBwd(98186.0); // this goes from the wall to pushing the red ball out of the way
-        drive.turnRight(75.0); // turns towards blue ball
-        drive.driveToTargetFwdwIntake(-74000.0); // this drives towards the blue ball while intaking
-        shooter.autoIntake(0.4);
-        drive.turnLeftwIntake(100); // turns left back towards goal
-        drive.driveToTargetFwd(-110000.0); // drives towards goal
-        shooter.kickDownAuto(); // kicks ball down
-        shooter.autoShoot(0.40); // shoots
+    public AutoStep wallLeft2Ball() {
+        return new AutoSequence(
+                shooter.dropIntakeStep(),
+                shooter.shootStep(0.40, 1),
+                drive.driveStep(98186.0), // this goes from the wall to pushing the red ball out of the way
+                drive.turnStep(75.0), // turns right towards blue ball
+                new AutoRace(drive.driveStep(-74000.0, drive.intakeDriveVelocity), shooter.intakeContStep()), // this drives towards the blue ball while intaking
+                shooter.intakeStep(0.4),
+                new AutoRace(drive.turnStep(-100.0), shooter.intakeContStep()), // turns left back towards goal
+                new AutoParallel(
+                        drive.driveStep(-110000.0), // drives towards goal
+                        new AutoSequence(
+                                shooter.kickDownStep(), // kicks ball down on the way
+                                shooter.spinUpStep(0.40))), // and spins up for the rest of the drive
+                shooter.shootStep(0.40, 1)); // shoots
     }
 
-    public void wallLeft1Ball() {
-        shooter.dropIntake();
-        shooter.autoShoot(0.45);
-        drive.driveToTargetBwd(98186.0); // this goes from the wall to pushing the red ball out of the way
-        drive.turnRight(75.0); // turns towards blue ball
+    public AutoStep wallLeft1Ball() {
+        return new AutoSequence(
+                shooter.dropIntakeStep(),
+                shooter.shootStep(0.45, 1),
+                drive.driveStep(98186.0), // this goes from the wall to pushing the red ball out of the way
+                drive.turnStep(75.0)); // turns right towards blue ball
     }
 
-    public void middleWallRightSide2Ball() {
-        shooter.dropIntake();
-        drive.driveToTargetFwdwIntake(-83290.0);
-        drive.turnLeftwIntake(175);
-        drive.driveToTargetFwd(-65000);
-        drive.turnLeft(10);
-        shooter.kickDown2BallAuto();
-        shooter.autoShoot(0.4);
+    public AutoStep middleWallRightSide2Ball() {
+        return new AutoSequence(
+                shooter.dropIntakeStep(),
+                new AutoRace(drive.driveStep(-83290.0, drive.intakeDriveVelocity), shooter.intakeContStep()),
+                new AutoRace(drive.turnStep(-175.0), shooter.intakeContStep()),
+                new AutoParallel(
+                        new AutoSequence(
+                                drive.driveStep(-65000.0),
+                                drive.turnStep(-10.0)),
+                        new AutoSequence(
+                                shooter.kickDown2BallStep(),
+                                shooter.spinUpStep(0.4))),
+                shooter.shootStep(0.4, 2));
     }
 
-    public void middleWallRightSide1Ball() {
-        drive.driveToTargetFwd(-88000.0);
+    public AutoStep middleWallRightSide1Ball() {
+        return new AutoSequence(
+                drive.driveStep(-88000.0));
     }
 
-    public void rightWall2Ball() {
-        shooter.dropIntake();
-        shooter.autoShoot(0.35);
-        drive.driveToTargetBwd(77751.0); // this goes from the wall to pushing the red ball out of the way
-        drive.turnLeft(85.0); // turns towards blue ball
-        drive.driveToTargetFwdwIntake(-50000.0); // this drives towards the blue ball while intaking
-        shooter.autoIntake(0.6);
-        drive.turnRightwIntake(100); // turns right back towards goal
-        drive.driveToTargetFwd(-92000.0); // drives towards goal
-        shooter.kickDownAuto(); // kicks ball down
-        shooter.autoShoot(0.35); // shoots
+    public AutoStep rightWall2Ball() {
+        return new AutoSequence(
+                shooter.dropIntakeStep(),
+                shooter.shootStep(0.35, 1),
+                drive.driveStep(77751.0), // this goes from the wall to pushing the red ball out of the way
+                drive.turnStep(-85.0), // turns left towards blue ball
+                new AutoRace(drive.driveStep(-50000.0, drive.intakeDriveVelocity), shooter.intakeContStep()), // this drives towards the blue ball while intaking
+                shooter.intakeStep(0.6),
+                new AutoRace(drive.turnStep(100.0), shooter.intakeContStep()), // turns right back towards goal
+                new AutoParallel(
+                        drive.driveStep(-92000.0), // drives towards goal
+                        new AutoSequence(
+                                shooter.kickDownStep(), // kicks ball down on the way
+                                shooter.spinUpStep(0.35))), // and spins up for the rest of the drive
+                shooter.shootStep(0.35, 1)); // shoots
     }
 
-    public void rightWall1Ball() {
-        shooter.dropIntake();
-        shooter.autoShoot(0.45);
-        drive.driveToTargetBwd(98186.0); // this goes from the wall to pushing the red ball out of the way
-        drive.turnLeft(75.0); // turns left towards blue ball
+    public AutoStep rightWall1Ball() {
+        return new AutoSequence(
+                shooter.dropIntakeStep(),
+                shooter.shootStep(0.45, 1),
+                drive.driveStep(98186.0), // this goes from the wall to pushing the red ball out of the way
+                drive.turnStep(-75.0)); // turns left towards blue ball
     }
 }
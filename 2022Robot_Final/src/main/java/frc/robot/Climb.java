@@ -131,7 +131,7 @@ public class Climb extends Robot {
     }
 
     public void rotateClimb() {
-        climbMotor1.set(ControlMode.PercentOutput, -stick.getRawAxis(constants.Right_Y_Axis) * .5);
+        climbMotor1.set(ControlMode.PercentOutput, -sensors.axis(constants.Right_Y_Axis) * .5);
         climbMotor2.follow(climbMotor1);
     }
 
@@ -143,19 +143,19 @@ public class Climb extends Robot {
     }
 
     public void runLiftClimbMode() {
-        if (stick.getRawButton(constants.Triangle) == true) {
+        if (sensors.button(constants.Triangle) == true) {
             liftMotor.set(ControlMode.PercentOutput, 1);
         }
-        if (stick.getRawButton(constants.Circle) == true) {
+        if (sensors.button(constants.Circle) == true) {
             liftMotor.set(ControlMode.PercentOutput, -1);
-        } else if (stick.getRawButton(constants.Triangle) == false
-                && stick.getRawButton(constants.Circle) == false) {
+        } else if (sensors.button(constants.Triangle) == false
+                && sensors.button(constants.Circle) == false) {
             liftMotor.set(ControlMode.PercentOutput, 0);
         }
     }
 
     public void runLiftNormalMode() {
-        liftMotor.set(ControlMode.PercentOutput, -stick.getRawAxis(constants.Right_Y_Axis));
+        liftMotor.set(ControlMode.PercentOutput, -sensors.axis(constants.Right_Y_Axis));
     }
 
     public void climbGrab() {
@@ -230,14 +230,14 @@ public class Climb extends Robot {
     /////////////////////////////////////////////////////////////////////
     /////////////////////////////////////////////////////////////////////
     int processMidGrab(int button) {
-        if ((stick.getRawButton(button) == true)
+        if ((sensors.button(button) == true)
                 && (midGrab_state == retracted) && (midGrab_enabled == true)) {
             midRung.set(Value.kForward);
             midGrab_state = extended;
             midGrab_enabled = false;
             System.out.println("Button Pressed, State = " + midGrab_state);
             delay.delay_milliseconds(20);
-        } else if ((stick.getRawButton(button) == true)
+        } else if ((sensors.button(button) == true)
                 && (midGrab_state == extended) && (midGrab_enabled == true)) {
             System.out.println("Button Pressed");
             midRung.set(Value.kReverse);
@@ -245,7 +245,7 @@ public class Climb extends Robot {
             midGrab_enabled = false;
             System.out.println("Button Pressed, State = " + midGrab_state);
             delay.delay_milliseconds(20);
-        } else if ((stick.getRawButton(button) == false)
+        } else if ((sensors.button(button) == false)
                 && (midGrab_enabled == false)) {
             System.out.println("Button Released, State = " + midGrab_state);
             midGrab_enabled = true;
@@ -274,14 +274,14 @@ public class Climb extends Robot {
     /////////////////////////////////////////////////////////////////////
     /////////////////////////////////////////////////////////////////////
     int processHighGrab(int button) {
-        if ((stick.getRawButton(button) == true)
+        if ((sensors.button(button) == true)
                 && (highGrab_state == retracted) && (highGrab_enabled == true)) {
             highRung.set(Value.kForward);
             highGrab_state = extended;
             highGrab_enabled = false;
             System.out.println("Button Pressed, State = " + highGrab_state);
             delay.delay_milliseconds(20);
-        } else if ((stick.getRawButton(button) == true)
+        } else if ((sensors.button(button) == true)
                 && (highGrab_state == extended) && (highGrab_enabled == true)) {
             System.out.println("Button Pressed");
             highRung.set(Value.kReverse);
@@ -289,7 +289,7 @@ public class Climb extends Robot {
             highGrab_enabled = false;
             System.out.println("Button Pressed, State = " + highGrab_state);
             delay.delay_milliseconds(20);
-        } else if ((stick.getRawButton(button) == false)
+        } else if ((sensors.button(button) == false)
                 && (highGrab_enabled == false)) {
             System.out.println("Button Released, State = " + highGrab_state);
             highGrab_enabled = true;
@@ -318,14 +318,14 @@ public class Climb extends Robot {
     /////////////////////////////////////////////////////////////////////
     /////////////////////////////////////////////////////////////////////
     int processTravGrab(int button) {
-        if ((stick.getRawButton(button) == true)
+        if ((sensors.button(button) == true)
                 && (travGrab_state == retracted) && (travGrab_enabled == true)) {
             travRung.set(Value.kForward);
             travGrab_state = extended;
             travGrab_enabled = false;
             System.out.println("Button Pressed, State = " + travGrab_state);
             delay.delay_milliseconds(20);
-        } else if ((stick.getRawButton(button) == true)
+        } else if ((sensors.button(button) == true)
                 && (travGrab_state == extended) && (travGrab_enabled == true)) {
             System.out.println("Button Pressed");
             travRung.set(Value.kReverse);
@@ -333,7 +333,7 @@ public class Climb extends Robot {
             travGrab_enabled = false;
             System.out.println("Button Pressed, State = " + travGrab_state);
             delay.delay_milliseconds(20);
-        } else if ((stick.getRawButton(button) == false)
+        } else if ((sensors.button(button) == false)
                 && (travGrab_enabled == false)) {
             System.out.println("Button Released, State = " + travGrab_state);
             travGrab_enabled = true;
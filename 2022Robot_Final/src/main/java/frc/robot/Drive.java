@@ -27,10 +27,10 @@
 //
 //            Many of the functions contained with in this class are
 //            used for autonomous operation.
-//            The autonomous functions are not to be used for
-//            driving operations in that they contain while()
-//            loops that will defeat the watchdog nature of the
-//            timed robot application.
+//            The autonomous functions return AutoSteps that advance
+//            one tick per autonomousPeriodic() call, so they do not
+//            defeat the watchdog nature of the timed robot
+//            application.
 //
 /////////////////////////////////////////////////////////////////////
 /////////////////////////////////////////////////////////////////////
@@ -87,6 +87,47 @@ class Drive extends Robot {
 
     boolean driveInverted = false;
 
+    // Joystick deadband for teleop. Robot turns it off for autonomous,
+    // where small outputs from DriveStep must reach the motors.
+    double teleopDeadband = 0.05;
+
+    // Profiled distance drive, see DriveStep. Encoder counts per inch
+    // of travel follow from the wheel diameter and gear reduction in
+    // Constants (2048 counts per motor revolution).
+    double countsPerInch;
+    double maxDriveVelocity = 150.0; // in/sec
+    double maxDriveAcceleration = 180.0; // in/sec^2
+    double intakeDriveVelocity = 60.0; // in/sec, about the old 0.3
+    double drivekV = 1.0 / 210.0; // output per in/sec, free speed ~210 in/sec
+    double drivekA = 0.0005; // output per in/sec^2
+    double drivekP = 0.05; // output per inch of position error
+    double drivekD = 0.004; // output per in/sec of velocity error
+    double drivekS = 0.04; // breaks the wheels loose, added with the sign of motion
+    double driveTolerance = 0.5; // inches, leaves room to coast inside an inch
+    double driveSettleVelocity = 2.0; // in/sec
+    double driveTimeout = 1.0; // sec past the end of the profile
+
+    // Keeps every distance drive pointed straight, see HeadingHold.
+    // autoHeading is the heading the autonomous drive steps hold. It
+    // starts at the gyro angle when autonomous begins and each turn
+    // step moves it to the turn's target, so an error left by one
+    // leg is taken out on the next instead of carried along.
+    HeadingHold headingHold = new HeadingHold();
+    double autoHeading;
+
+    // Profiled turn, see TurnStep. Degrees, degrees/sec and
+    // degrees/sec^2, rotation output per unit.
+    double maxTurnVelocity = 360.0; // deg/sec
+    double maxTurnAcceleration = 1000.0; // deg/sec^2
+    double turnkV = 1.0 / 500.0; // free spin ~500 deg/sec
+    double turnkA = 0.0003;
+    double turnkS = 0.05; // breaks the wheels loose, added with the sign of motion
+    double turnkP = 0.02; // per degree of angle error
+    double turnkD = 0.002; // per deg/sec of rate error
+    double turnTolerance = 1.5; // degrees
+    double turnSettleRate = 10.0; // deg/sec
+    double turnTimeout = 0.75; // sec past the end of the profile
+
     // Constructor for MecDrive()
     Drive() {
 
@@ -109,8 +150,10 @@ class Drive extends Robot {
         frontLeft.setInverted(false);
         backLeft.setInverted(false);
 
+        countsPerInch = 2048.0 * constants.gear_reduction / (Math.PI * constants.wheel_diameter);
+
         mecanumDrive = new MecanumDrive(frontLeft, backLeft, frontRight, backRight);
-        mecanumDrive.setDeadband(0.05);
+        mecanumDrive.setDeadband(teleopDeadband);
         mecanumDrive.setSafetyEnabled(false);
 
         // Encoder for the front left drive motor.
@@ -155,20 +198,20 @@ class Drive extends Robot {
 
             // divide by 2 in order to increase precision and eliminate getting -2 and 2 as
             // max values, instead getting -1 and 1
-            triggerAddition = (-stick.getRawAxis(constants.Left_Trigger) / 2
-                    + stick.getRawAxis(constants.Right_Trigger) / 2);
+            triggerAddition = (-sensors.axis(constants.Left_Trigger) / 2
+                    + sensors.axis(constants.Right_Trigger) / 2);
 
             // Use the second input for lateral movement, first input for forward
             // movement, and the third input for rotation.
-            mecanumDrive.driveCartesian(-stick.getRawAxis(constants.Left_Y_Axis), triggerAddition,
-                    stick.getRawAxis(constants.Left_X_Axis), 0.0);
+            mecanumDrive.driveCartesian(-sensors.axis(constants.Left_Y_Axis), triggerAddition,
+                    sensors.axis(constants.Left_X_Axis), 0.0);
         }
     }
 
     public void invertedDriveMotorsNoStrafe() {
         if (driveInverted == true) {
-        mecanumDrive.driveCartesian(-stick.getRawAxis(constants.Left_Y_Axis), 0,
-                stick.getRawAxis(constants.Left_X_Axis));
+        mecanumDrive.driveCartesian(-sensors.axis(constants.Left_Y_Axis), 0,
+                sensors.axis(constants.Left_X_Axis));
         }
     }
 
@@ -179,164 +222,226 @@ class Drive extends Robot {
 
             // divide by 2 in order to increase precision and eliminate getting -2 and 2 as
             // max values, instead getting -1 and 1
-            triggerAddition = (-stick.getRawAxis(constants.Left_Trigger) / 2
-                    + stick.getRawAxis(constants.Right_Trigger) / 2);
+            triggerAddition = (-sensors.axis(constants.Left_Trigger) / 2
+                    + sensors.axis(constants.Right_Trigger) / 2);
 
             // Use the second input for lateral movement, first input for forward
             // movement, and the third input for rotation.
-            mecanumDrive.driveCartesian(stick.getRawAxis(constants.Left_Y_Axis), -triggerAddition,
-                    stick.getRawAxis(constants.Left_X_Axis), 0.0);
+            mecanumDrive.driveCartesian(sensors.axis(constants.Left_Y_Axis), -triggerAddition,
+                    sensors.axis(constants.Left_X_Axis), 0.0);
         }
     }
 
     public void standardDriveMotorsNoStrafe() {
         if (driveInverted == false) {
-            mecanumDrive.driveCartesian(stick.getRawAxis(constants.Left_Y_Axis), 0,
-                    stick.getRawAxis(constants.Left_X_Axis));
+            mecanumDrive.driveCartesian(sensors.axis(constants.Left_Y_Axis), 0,
+                    sensors.axis(constants.Left_X_Axis));
         }
     }
 
-    public void driveToTargetBwd(double countTarget) {
-        double distance;
-        double target;
-
-        distance = backRight.getSelectedSensorPosition();
-        target = countTarget + distance;
-        // countTarget = 16676; //1 foot
-        // countTarget = -78846.0; // -5 feet
-        // countTarget = 247077.0; // 15 feet
-
-        while (distance < target) {
-            distance = backRight.getSelectedSensorPosition();
-            mecanumDrive.driveCartesian(0.3, 0, 0);
-            // System.out.println("Encoder pos:" + backRight.getSelectedSensorPosition());
-        }
+    ///////////////////////////////////////////////////////////////
+    // Autonomous steps
+    ///////////////////////////////////////////////////////////////
+    // Drives and turns for the autonomous executor, see AutoStep.
+    // Each tick reads the encoder and gyro from Robot.sensors and sets
+    // the motors once. To intake on the way, race a step with
+    // Shooter.intakeContStep(), see AutoRace.
+
+    // Start holding the current heading, called when autonomous begins
+    public void resetAutoHeading() {
+        autoHeading = sensors.gyroAngle;
+    }
 
-        mecanumDrive.driveCartesian(0, 0, 0);
+    // Drives countTarget encoder counts, forward for a negative count
+    // and backward for a positive one, following a trapezoidal
+    // profile at up to maxDriveVelocity.
+    public AutoStep driveStep(double countTarget) {
+        return new DriveStep(countTarget, maxDriveVelocity);
+    }
 
+    // Profiled drive with a lower top speed, e.g. intakeDriveVelocity
+    public AutoStep driveStep(double countTarget, double maxVelocity) {
+        return new DriveStep(countTarget, maxVelocity);
     }
 
-    public void driveToTargetFwd(double countTarget) {
-        double distance;
-        double target;
+    // Profiled turn, right for a positive angle and left for a
+    // negative one. The angle is measured from autoHeading, the
+    // heading the last step was aiming for, not from where the robot
+    // ended up.
+    public AutoStep turnStep(double angle) {
+        return new TurnStep(angle, false);
+    }
 
-        distance = backRight.getSelectedSensorPosition();
-        target = countTarget + distance;
-        // countTarget = 16676; //1 foot
-        // countTarget = r78846.0; // 5 feet
-        // countTarget = 247077.0; // 15 feet
+    // Turns to a compass heading (0->360) the short way round, as
+    // Falcon_MecDrive.turn2Heading() does.
+    public AutoStep headingStep(double heading) {
+        return new TurnStep(heading, true);
+    }
 
-        while (distance > target) {
-            distance = backRight.getSelectedSensorPosition();
-            mecanumDrive.driveCartesian(-0.3, 0, 0);
-            // System.out.println("Encoder pos:" + backRight.getSelectedSensorPosition());
+    // Gyro angle as a compass heading, 0 up to 360
+    public static double compassHeading(double angle) {
+        angle = angle % 360.0;
+        if (angle < 0.0) {
+            angle += 360.0;
         }
-
-        mecanumDrive.driveCartesian(0, 0, 0);
-
+        return angle;
     }
 
-    public void driveToTargetFwdwIntake(double countTarget) {
-        double distance;
-        double target;
-
-        distance = backRight.getSelectedSensorPosition();
-        target = countTarget + distance;
-        // countTarget = 16676; //1 foot
-        // countTarget = r78846.0; // 5 feet
-        // countTarget = 247077.0; // 15 feet
-
-        while (distance > target) {
-            distance = backRight.getSelectedSensorPosition();
-            mecanumDrive.driveCartesian(-0.3, 0, 0);
-            shooter.autoIntakeCont();
+    // Reduces a turn to the smallest rotation, -180 to 180 degrees
+    public static double shortestTurn(double delta) {
+        delta = delta % 360.0;
+        if (delta > 180.0) {
+            delta -= 360.0;
         }
-        shooter.shooterMotorsOffAuto();
-
-        mecanumDrive.driveCartesian(0, 0, 0);
-
+        if (delta < -180.0) {
+            delta += 360.0;
+        }
+        return delta;
     }
 
-    public void driveToTargetBwdwIntake(double countTarget) {
-        double distance;
-        double target;
-
-        distance = backRight.getSelectedSensorPosition();
-        target = countTarget + distance;
-        // countTarget = 16676; //1 foot
-        // countTarget = -78846.0; // -5 feet
-        // countTarget = 247077.0; // 15 feet
-
-        while (distance < target) {
-            distance = backRight.getSelectedSensorPosition();
-            mecanumDrive.driveCartesian(0.3, 0, 0);
-            shooter.autoIntakeCont();
+    // Follows a MotionProfile of the distance. Each tick the output is
+    // feedforward from the profile's velocity and acceleration plus
+    // feedback on the position and velocity errors. Finished once the
+    // profile is over and the robot is within driveTolerance and
+    // nearly stopped, or driveTimeout after the profile ends. drivekS
+    // is added in the direction of motion, and after the profile in
+    // the direction of the error, so friction does not stop the last
+    // inch. The rotation input holds autoHeading throughout.
+    class DriveStep implements AutoStep {
+        final double countTarget;
+        final double maxVelocity;
+        MotionProfile profile;
+        double startPosition; // counts
+        long startTime;
+
+        DriveStep(double countTarget, double maxVelocity) {
+            this.countTarget = countTarget;
+            this.maxVelocity = maxVelocity;
         }
-        shooter.shooterMotorsOffAuto();
 
-        mecanumDrive.driveCartesian(0, 0, 0);
+        public void start() {
+            profile = new MotionProfile(countTarget / countsPerInch, maxVelocity, maxDriveAcceleration);
+            startPosition = sensors.backRightPosition;
+            startTime = sensors.time;
+            headingHold.reset(autoHeading, sensors.time);
+        }
 
-    }
+        public boolean execute() {
+            double t = (sensors.time - startTime) / 1e9;
+            double position;
+            double velocity;
+            double positionError;
+            double motion;
+            double output;
+
+            // Inches and inches/sec from the start, counts/100msec for velocity
+            position = (sensors.backRightPosition - startPosition) / countsPerInch;
+            velocity = sensors.backRightVelocity * 10.0 / countsPerInch;
+            positionError = profile.position(t) - position;
+
+            if (profile.isFinished(t) == true) {
+                if (Math.abs(positionError) < driveTolerance && Math.abs(velocity) < driveSettleVelocity) {
+                    return true;
+                }
+                if (t > profile.getTotalTime() + driveTimeout) {
+                    System.out.println("Drive timed out, error inches: " + positionError);
+                    return true;
+                }
+            }
 
-    public void turnRight(double angle) {
-        double target;
-        double gyro;
+            if (profile.isFinished(t) == false) {
+                motion = profile.velocity(t);
+            } else if (Math.abs(positionError) >= driveTolerance) {
+                motion = positionError;
+            } else {
+                motion = 0.0;
+            }
 
-        target = driveGyro.getAngle() + angle;
-        gyro = driveGyro.getAngle();
+            output = drivekV * profile.velocity(t) + drivekA * profile.acceleration(t)
+                    + drivekP * positionError + drivekD * (profile.velocity(t) - velocity)
+                    + drivekS * Math.signum(motion);
+            output = Math.max(-1.0, Math.min(1.0, output));
+            mecanumDrive.driveCartesian(output, 0,
+                    headingHold.calculate(sensors.gyroAngle, sensors.gyroRate, sensors.time));
+            return false;
+        }
 
-        while (gyro < target) {
-            mecanumDrive.driveCartesian(0, 0, 0.2);
-            gyro = driveGyro.getAngle();
+        public void end(boolean interrupted) {
+            mecanumDrive.driveCartesian(0, 0, 0);
         }
-        mecanumDrive.driveCartesian(0, 0, 0);
     }
 
-    public void turnLeft(double angle) {
-        double target;
-        double gyro;
-        angle = angle * -1;
-
-        target = driveGyro.getAngle() + angle;
-        gyro = driveGyro.getAngle();
-
-        while (gyro > target) {
-            mecanumDrive.driveCartesian(0, 0, -0.2);
-            gyro = driveGyro.getAngle();
+    // Follows a MotionProfile of the rotation, the same way DriveStep
+    // follows one of the distance, with the gyro rate as the velocity
+    // feedback. turnkS is added in the direction of motion, and after
+    // the profile in the direction of the error, so the last degree or
+    // two is not lost to wheel scrub. Finished once the profile is
+    // over and the robot is within turnTolerance and turning slower
+    // than turnSettleRate, or turnTimeout after the profile ends.
+    class TurnStep implements AutoStep {
+        final double angle; // or compass heading
+        final boolean compass;
+        MotionProfile profile;
+        double startAngle;
+        long startTime;
+
+        TurnStep(double angle, boolean compass) {
+            this.angle = angle;
+            this.compass = compass;
         }
-        mecanumDrive.driveCartesian(0, 0, 0);
-    }
 
-    public void turnRightwIntake(double angle) {
-        double target;
-        double gyro;
+        public void start() {
+            double target;
 
-        target = driveGyro.getAngle() + angle;
-        gyro = driveGyro.getAngle();
+            if (compass == true) {
+                target = autoHeading + shortestTurn(angle - compassHeading(autoHeading));
+            } else {
+                target = autoHeading + angle;
+            }
+            autoHeading = target;
 
-        while (gyro < target) {
-            mecanumDrive.driveCartesian(0, 0, 0.2);
-            gyro = driveGyro.getAngle();
-            shooter.autoIntakeCont();
+            startAngle = sensors.gyroAngle;
+            startTime = sensors.time;
+            profile = new MotionProfile(target - startAngle, maxTurnVelocity, maxTurnAcceleration);
         }
-        shooter.shooterMotorsOffAuto();
-        mecanumDrive.driveCartesian(0, 0, 0);
-    }
 
-    public void turnLeftwIntake(double angle) {
-        double target;
-        double gyro;
-        angle = angle * -1;
+        public boolean execute() {
+            double t = (sensors.time - startTime) / 1e9;
+            double angleError;
+            double rate = sensors.gyroRate;
+            double motion;
+            double output;
+
+            angleError = profile.position(t) - (sensors.gyroAngle - startAngle);
+
+            if (profile.isFinished(t) == true) {
+                if (Math.abs(angleError) < turnTolerance && Math.abs(rate) < turnSettleRate) {
+                    return true;
+                }
+                if (t > profile.getTotalTime() + turnTimeout) {
+                    System.out.println("Turn timed out, error degrees: " + angleError);
+                    return true;
+                }
+            }
+
+            if (profile.isFinished(t) == false) {
+                motion = profile.velocity(t);
+            } else if (Math.abs(angleError) >= turnTolerance) {
+                motion = angleError;
+            } else {
+                motion = 0.0;
+            }
 
-        target = driveGyro.getAngle() + angle;
-        gyro = driveGyro.getAngle();
+            output = turnkV * profile.velocity(t) + turnkA * profile.acceleration(t)
+                    + turnkP * angleError + turnkD * (profile.velocity(t) - rate)
+                    + turnkS * Math.signum(motion);
+            output = Math.max(-1.0, Math.min(1.0, output));
+            mecanumDrive.driveCartesian(0, 0, output);
+            return false;
+        }
 
-        while (gyro > target) {
-            mecanumDrive.driveCartesian(0, 0, -0.2);
-            gyro = driveGyro.getAngle();
-            shooter.autoIntakeCont();
+        public void end(boolean interrupted) {
+            mecanumDrive.driveCartesian(0, 0, 0);
         }
-        shooter.shooterMotorsOffAuto();
-        mecanumDrive.driveCartesian(0, 0, 0);
     }
-}
\ No newline at end of file
+}
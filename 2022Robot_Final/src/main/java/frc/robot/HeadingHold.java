@@ -0,0 +1,79 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  HeadingHold.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Gyro heading hold for straight line driving.  Gives
+//            the rotation input for driveCartesian() that keeps
+//            the robot pointed at a target heading while it drives
+//            forward or backward.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  PID on the heading error in degrees.  The derivative
+//            term uses the gyro rate rather than the change in
+//            error, so it does not kick when the target changes.
+//            The integral removes the steady pull of a side that
+//            drives harder than the other and is clamped to
+//            maxIntegral so it cannot wind up.  The output is
+//            limited to maxOutput and may change by at most
+//            maxOutputRate per second, so a sudden correction does
+//            not jerk the robot off line.
+//
+//            The gyro angle increases clockwise, the same direction
+//            as a positive driveCartesian() rotation, so a positive
+//            error (target clockwise of the robot) gives a
+//            positive output.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+class HeadingHold {
+
+    double kP = 0.02; // rotation per degree of error
+    double kI = 0.01; // rotation per degree-second of error
+    double kD = 0.002; // rotation per degree/sec of gyro rate
+    double maxIntegral = 0.08; // largest integral contribution
+    double maxOutput = 0.25;
+    double maxOutputRate = 2.0; // output change per second
+
+    private double targetHeading;
+    private double integral;
+    private double output;
+    private long lastTime;
+
+    // Hold heading (degrees, same zero as the gyro) from time
+    // (System.nanoTime()) on.
+    void reset(double heading, long time) {
+        targetHeading = heading;
+        integral = 0.0;
+        output = 0.0;
+        lastTime = time;
+    }
+
+    double getTargetHeading() {
+        return targetHeading;
+    }
+
+    // Rotation for driveCartesian() given the gyro angle (degrees) and
+    // rate (degrees/sec) read at time.
+    double calculate(double angle, double rate, long time) {
+        double dt = (time - lastTime) / 1e9;
+        double error = targetHeading - angle;
+        double wanted;
+        double step;
+
+        lastTime = time;
+
+        integral += kI * error * dt;
+        integral = Math.max(-maxIntegral, Math.min(maxIntegral, integral));
+
+        wanted = kP * error + integral - kD * rate;
+        wanted = Math.max(-maxOutput, Math.min(maxOutput, wanted));
+
+        step = maxOutputRate * dt;
+        output += Math.max(-step, Math.min(step, wanted - output));
+        return output;
+    }
+}
@@ -0,0 +1,126 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  MotionProfile.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Trapezoidal velocity profile for a move of a given
+//            distance from rest to rest:  accelerate at the maximum
+//            acceleration, cruise at the maximum velocity, then
+//            decelerate at the maximum acceleration.  Short moves
+//            that never reach the maximum velocity become a
+//            triangle.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  The profile only says where the robot should be and
+//            how fast it should be going at each time, the
+//            controller that follows it is in Drive.DriveStep.
+//            Units are whatever the caller uses, consistently
+//            (inches, inches/sec, inches/sec^2 in Drive).  A
+//            negative distance gives negative positions and
+//            velocities.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+class MotionProfile {
+
+    private final double sign;
+    private final double distance; // magnitude
+    private final double acceleration;
+    private final double peakVelocity;
+    private final double accelTime; // also the deceleration time
+    private final double cruiseTime;
+    private final double totalTime;
+
+    MotionProfile(double distance, double maxVelocity, double maxAcceleration) {
+        double accelDistance;
+
+        if (distance < 0.0) {
+            sign = -1.0;
+        } else {
+            sign = 1.0;
+        }
+        this.distance = Math.abs(distance);
+        acceleration = Math.abs(maxAcceleration);
+
+        accelDistance = 0.5 * maxVelocity * maxVelocity / acceleration;
+        if (2.0 * accelDistance > this.distance) {
+            // Triangle, turn around half way
+            accelTime = Math.sqrt(this.distance / acceleration);
+            peakVelocity = acceleration * accelTime;
+            cruiseTime = 0.0;
+        } else {
+            accelTime = maxVelocity / acceleration;
+            peakVelocity = maxVelocity;
+            cruiseTime = (this.distance - 2.0 * accelDistance) / maxVelocity;
+        }
+        totalTime = 2.0 * accelTime + cruiseTime;
+    }
+
+    // Length of the move in seconds
+    double getTotalTime() {
+        return totalTime;
+    }
+
+    double getPeakVelocity() {
+        return sign * peakVelocity;
+    }
+
+    boolean isFinished(double t) {
+        return t >= totalTime;
+    }
+
+    // Position setpoint t seconds after the start
+    double position(double t) {
+        double p;
+        double td;
+
+        if (t <= 0.0) {
+            return 0.0;
+        }
+        if (t < accelTime) {
+            p = 0.5 * acceleration * t * t;
+        } else if (t < accelTime + cruiseTime) {
+            p = 0.5 * peakVelocity * accelTime + peakVelocity * (t - accelTime);
+        } else if (t < totalTime) {
+            td = totalTime - t;
+            p = distance - 0.5 * acceleration * td * td;
+        } else {
+            p = distance;
+        }
+        return sign * p;
+    }
+
+    // Velocity setpoint t seconds after the start
+    double velocity(double t) {
+        double v;
+
+        if (t <= 0.0 || t >= totalTime) {
+            return 0.0;
+        }
+        if (t < accelTime) {
+            v = acceleration * t;
+        } else if (t < accelTime + cruiseTime) {
+            v = peakVelocity;
+        } else {
+            v = acceleration * (totalTime - t);
+        }
+        return sign * v;
+    }
+
+    // Acceleration setpoint t seconds after the start
+    double acceleration(double t) {
+        if (t <= 0.0 || t >= totalTime) {
+            return 0.0;
+        }
+        if (t < accelTime) {
+            return sign * acceleration;
+        }
+        if (t < accelTime + cruiseTime) {
+            return 0.0;
+        }
+        return -sign * acceleration;
+    }
+}
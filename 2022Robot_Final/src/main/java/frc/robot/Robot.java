@@ -41,7 +41,12 @@ public class Robot extends TimedRobot {
   static Drive drive;
   static Autonomous auto;
 
-  boolean autoOnce;
+  // This cycle's sensor and joystick readings, see SensorSnapshot
+  static SensorSnapshot sensors;
+
+  // Selected routine and whether it is still running
+  AutoStep autoRoutine;
+  boolean autoRunning;
 
   // WPI_TalonFX frontLeft;
   // WPI_TalonFX frontRight;
@@ -78,10 +83,17 @@ public class Robot extends TimedRobot {
 
   }
 
+  // Nothing is read here: robotPeriodic() runs after the mode periodic
+  // function, too late for this cycle. Each mode periodic function
+  // starts with takeSnapshot() instead.
   @Override
   public void robotPeriodic() {
   }
 
+  public void takeSnapshot() {
+    sensors = new SensorSnapshot(stick, drive, climb, shooter);
+  }
+
   @Override
   public void autonomousInit() {
     autoSelected = autoChooser.getSelected();
@@ -93,47 +105,55 @@ public class Robot extends TimedRobot {
     drive.frontLeft.setNeutralMode(NeutralMode.Brake);
     drive.backLeft.setNeutralMode(NeutralMode.Brake);
 
-    autoOnce = true;
+    // The drive steps' small corrections must not be deadbanded away
+    drive.mecanumDrive.setDeadband(0.0);
+
+    autoRoutine = selectRoutine(autoSelected);
+    autoRunning = false;
+    if (autoRoutine != null) {
+      takeSnapshot();
+      drive.resetAutoHeading();
+      autoRoutine.start();
+      autoRunning = true;
+    }
+  }
+
+  public AutoStep selectRoutine(String name) {
+    switch (name) {
+      case auto1:
+        return auto.wallLeft2Ball();
+      case auto2:
+        return auto.wallLeft1Ball();
+      case auto3:
+        return auto.middleWallRightSide2Ball();
+      case auto4:
+        return auto.middleWallRightSide1Ball();
+      case auto5:
+        return auto.rightWall2Ball();
+      case auto6:
+        return auto.rightWall1Ball();
+      case auto7:
+        return auto.driveOutOfAreaBwd();
+      case auto8:
+        return auto.driveOutOfAreaFwd();
+      default:
+        // put auto code here
+        return null;
+    }
   }
 
+  // One tick of the routine per call, see AutoStep
   @Override
   public void autonomousPeriodic() {
-    if (autoOnce == true) {
-      switch (autoSelected) {
-        case auto1:
-          auto.wallLeft2Ball();
-          break;
-        case auto2:
-          auto.wallLeft1Ball();
-          break;
-          case auto3:
-          auto.middleWallRightSide2Ball();
-          break;
-          case auto4:
-          auto.middleWallRightSide1Ball();
-          break;
-          case auto5:
-          auto.rightWall2Ball();
-          break;
-          case auto6:
-          auto.rightWall1Ball();
-          break;
-          case auto7:
-          auto.driveOutOfAreaBwd();
-          break;
-          case auto8:
-          auto.driveOutOfAreaFwd();
-          break;
-        default:
-          // put auto code here
-          break;
-      }
+    takeSnapshot();
+    if (autoRunning == true && autoRoutine.execute() == true) {
+      autoRoutine.end(false);
+      autoRunning = false;
+      drive.backRight.setNeutralMode(NeutralMode.Coast);
+      drive.backLeft.setNeutralMode(NeutralMode.Coast);
+      drive.frontRight.setNeutralMode(NeutralMode.Coast);
+      drive.frontLeft.setNeutralMode(NeutralMode.Coast);
     }
-    autoOnce = false;
-    drive.backRight.setNeutralMode(NeutralMode.Coast);
-    drive.backLeft.setNeutralMode(NeutralMode.Coast);
-    drive.frontRight.setNeutralMode(NeutralMode.Coast);
-    drive.frontLeft.setNeutralMode(NeutralMode.Coast);
   }
 
   @Override
@@ -142,10 +162,13 @@ public class Robot extends TimedRobot {
     drive.backLeft.setNeutralMode(NeutralMode.Coast);
     drive.frontRight.setNeutralMode(NeutralMode.Coast);
     drive.frontLeft.setNeutralMode(NeutralMode.Coast);
+
+    drive.mecanumDrive.setDeadband(drive.teleopDeadband);
   }
 
   @Override
   public void teleopPeriodic() {
+    takeSnapshot();
 
     if (climb.runClimbMode == true) {
       climb.rotateClimb();
@@ -182,10 +205,20 @@ public class Robot extends TimedRobot {
 
   @Override
   public void disabledInit() {
+    // Stop a routine that did not finish before the end of autonomous
+    if (autoRunning == true) {
+      autoRoutine.end(true);
+      autoRunning = false;
+    }
+
+    // Accuracy of the delays used while enabled
+    Delay.printJitterHistogram();
+    Delay.resetJitterHistogram();
   }
 
   @Override
   public void disabledPeriodic() {
+    takeSnapshot();
   }
 
   @Override
@@ -195,15 +228,16 @@ public class Robot extends TimedRobot {
 
     drive.frontRight.setNeutralMode(NeutralMode.Coast);
     drive.frontLeft.setNeutralMode(NeutralMode.Coast);
+
+    drive.mecanumDrive.setDeadband(drive.teleopDeadband);
   }
 
   @Override
   public void testPeriodic() {
-    double encoderPrint = drive.backRight.getSelectedSensorPosition();
-    System.out.println("Encoder: " + encoderPrint);
+    takeSnapshot();
 
-    double gyroPrint = drive.driveGyro.getAngle();
-    System.out.println("Gyro: " + gyroPrint);
+    System.out.println("Encoder: " + sensors.backRightPosition);
+    System.out.println("Gyro: " + sensors.gyroAngle);
   }
 
   @Override
@@ -215,7 +249,7 @@ public class Robot extends TimedRobot {
   }
 
   public void NormalizeEverything(int button) {
-    if (stick.getRawButton(button) == true) {
+    if (sensors.button(button) == true) {
       climb.runClimbMode = false;
       drive.driveInverted = false;
     }
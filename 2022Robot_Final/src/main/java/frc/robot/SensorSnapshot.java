@@ -0,0 +1,100 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  SensorSnapshot.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Every sensor and joystick value the subsystems use,
+//            read once per control cycle.  Robot takes a new
+//            snapshot at the top of each mode periodic function
+//            and the subsystems read Robot.sensors instead of
+//            calling getRawButton(), getRawAxis(),
+//            getSelectedSensorPosition() etc. themselves.
+//
+//  Compiling Environment:  Microsoft Java VS
+//
+//  Remarks:  Each of those calls goes through JNI to the HAL or
+//            the CAN bus.  shooterMotorsOff() alone used to make
+//            four button reads, and two subsystems could see the
+//            same button differently within one cycle.  All
+//            fourteen buttons now come from a single
+//            DriverStation.getStickButtons() call.
+//
+//            The snapshot is immutable.  Loops that wait inside
+//            one periodic call for something to change
+//            (invertDrive(), toggleClimbMode(), climbAlign()) must
+//            keep reading the hardware directly.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Joystick;
+
+final class SensorSnapshot {
+
+    // PS4 controller axes 0 through 5, see Constants
+    static final int AXIS_COUNT = 6;
+
+    final long time; // System.nanoTime() when taken
+
+    // Joystick, bit (n - 1) is button n
+    final int buttons;
+    private final double axes[];
+
+    // Drive encoders (counts) and gyro
+    final double frontLeftPosition;
+    final double frontRightPosition;
+    final double backLeftPosition;
+    final double backRightPosition;
+    final double backRightVelocity; // counts/100msec
+    final double gyroAngle; // degrees
+    final double gyroRate; // degrees/sec
+
+    // Climb encoders (counts)
+    final double climbPosition1;
+    final double climbPosition2;
+
+    // Shooter wheel RPM, always positive
+    final double shooterRPM;
+
+    // Pneumatic hub analog pressure sensor, psi
+    final double pressure;
+
+    SensorSnapshot(Joystick stick, Drive drive, Climb climb, Shooter shooter) {
+        int i;
+
+        time = System.nanoTime();
+
+        buttons = DriverStation.getStickButtons(stick.getPort());
+        axes = new double[AXIS_COUNT];
+        for (i = 0; i < AXIS_COUNT; i++) {
+            axes[i] = stick.getRawAxis(i);
+        }
+
+        frontLeftPosition = drive.frontLeft.getSelectedSensorPosition();
+        frontRightPosition = drive.frontRight.getSelectedSensorPosition();
+        backLeftPosition = drive.backLeft.getSelectedSensorPosition();
+        backRightPosition = drive.backRight.getSelectedSensorPosition();
+        backRightVelocity = drive.backRight.getSelectedSensorVelocity();
+        gyroAngle = drive.driveGyro.getAngle();
+        gyroRate = drive.driveGyro.getRate();
+
+        climbPosition1 = climb.climbMotor1.getSelectedSensorPosition();
+        climbPosition2 = climb.climbMotor2.getSelectedSensorPosition();
+
+        shooterRPM = shooter.shooterRPM();
+
+        pressure = climb.comp.getPressure();
+    }
+
+    // Same as stick.getRawButton(button), buttons start at 1
+    boolean button(int button) {
+        return (buttons & (1 << (button - 1))) != 0;
+    }
+
+    // Same as stick.getRawAxis(axis)
+    double axis(int axis) {
+        return axes[axis];
+    }
+}
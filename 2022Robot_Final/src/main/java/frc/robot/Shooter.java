@@ -18,8 +18,11 @@ package frc.robot;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.ControlType;
 import com.revrobotics.CANSparkMax.IdleMode;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
 
 public class Shooter extends Robot {
 
@@ -28,6 +31,38 @@ public class Shooter extends Robot {
     WPI_TalonFX sweeper;
     WPI_TalonFX loader;
     CANSparkMax shooter;
+    RelativeEncoder shooterEncoder;
+    SparkMaxPIDController shooterPID;
+
+    // Closed loop shooter speed on the Spark MAX velocity PID, in RPM.
+    // kFF is one over the NEO free speed so the feedforward alone
+    // lands close to the target and P only trims.
+    double shooterkP = 6.0e-5;
+    double shooterkI = 0.0;
+    double shooterkD = 0.0;
+    double shooterkFF = 1.0 / 5676.0;
+    double shooterRPMTolerance = 50.0;
+    final int shooterReadyCount = 3; // readings in tolerance in a row
+    final double spinUpTimeout = 1.5; // seconds
+
+    boolean shooterClosedLoop = false;
+    double shooterTargetRPM = 0.0;
+    double shooterPower = 0.0;
+    long shooterStartTime = 0; // System.nanoTime() of the last power or RPM change
+    double shooterSpinUpTime = 0.0; // msec
+
+    // Shot recovery, see ShotRecovery. Each ball pulls the wheel
+    // speed down as it goes through, so the dip marks a shot. The feed
+    // is stopped, the wheel is boosted back up, and the next ball is
+    // only fed once the speed has recovered.
+    final double shotDipFraction = 0.08; // drop below baseline that counts as a shot
+    final double recoverFraction = 0.03; // within this of baseline is recovered
+    final double recoveryBoost = 0.15; // extra output while recovering
+    final double recoveryBoostTime = 0.15; // seconds, longest boost
+    final double recoveryTimeout = 1.0; // seconds, longest wait for recovery
+    final double feedTimeout = 1.5; // seconds of feeding with no shot seen
+    final double feedPower = 0.5;
+    final double followThroughTime = 0.25; // seconds at speed after the last dip
 
     Shooter() {
 
@@ -50,14 +85,19 @@ public class Shooter extends Robot {
         loader.setInverted(false);
         sweeper.setInverted(false);
 
+        // NEO hall sensor, velocity in RPM
+        shooterEncoder = shooter.getEncoder();
+        shooterPID = shooter.getPIDController();
+        setShooterGains(shooterkP, shooterkI, shooterkD, shooterkFF);
+
         // Remaining
         // Which motors (if any) are inverted? Coast or brake mode?
 
     }
 
     public void shooterMotorsOff() {
-        if (stick.getRawButton(constants.X) == false && stick.getRawButton(constants.Square) == false
-                && stick.getRawButton(constants.Circle) == false && stick.getRawButton(constants.Triangle) == false) {
+        if (sensors.button(constants.X) == false && sensors.button(constants.Square) == false
+                && sensors.button(constants.Circle) == false && sensors.button(constants.Triangle) == false) {
             sweeper.set(0);
             loader.set(0);
             shooter.set(0);
@@ -65,7 +105,7 @@ public class Shooter extends Robot {
     }
 
     public void Intake() {
-        if (stick.getRawButton(constants.X) == true) {
+        if (sensors.button(constants.X) == true) {
             sweeper.set(0.40);
             loader.set(0.25);
             shooter.set(-0.1);
@@ -73,7 +113,7 @@ public class Shooter extends Robot {
     }
 
     public void ejectMotors() {
-        if (stick.getRawButton(constants.Circle) == true) {
+        if (sensors.button(constants.Circle) == true) {
             loader.set(-1);
             shooter.set(-1);
             sweeper.set(-0.75);
@@ -81,42 +121,78 @@ public class Shooter extends Robot {
     }
 
     public void ShootLowPower() {
-        if (stick.getRawButton(constants.Square) == true) {
+        if (sensors.button(constants.Square) == true) {
             shooter.set(0.45);
         }
     }
 
     public void kickDown() {
-        if (stick.getRawButton(constants.Triangle) == true) {
+        if (sensors.button(constants.Triangle) == true) {
             shooter.set(-0.8);
             loader.set(-0.8);
             sweeper.set(0.4);
         }
     }
 
-    public void dropIntake() {
-        sweeper.set(1);
-        delay.delay_seconds(1.5);
-        sweeper.set(0);
+    public void setShooterGains(double kP, double kI, double kD, double kFF) {
+        shooterkP = kP;
+        shooterkI = kI;
+        shooterkD = kD;
+        shooterkFF = kFF;
+        shooterPID.setP(kP);
+        shooterPID.setI(kI);
+        shooterPID.setD(kD);
+        shooterPID.setFF(kFF);
+        shooterPID.setOutputRange(-1.0, 1.0);
     }
 
-    public void autoShoot(double power) {
-        shooter.set(power);
-        delay.delay_seconds(0.5);
+    // Closed loop speed, the Spark MAX holds it from here on
+    public void setShooterRPM(double rpm) {
+        if (shooterClosedLoop == false || rpm != shooterTargetRPM) {
+            shooterStartTime = System.nanoTime();
+        }
+        shooterClosedLoop = true;
+        shooterTargetRPM = rpm;
+        shooterPID.setReference(rpm, ControlType.kVelocity);
+    }
+
+    // Open loop power, same as shooter.set()
+    public void setShooterPower(double power) {
+        if (shooterClosedLoop == true || power != shooterPower) {
+            shooterStartTime = System.nanoTime();
+        }
+        shooterClosedLoop = false;
+        shooterPower = power;
         shooter.set(power);
-        loader.set(0.5);
-        sweeper.set(0.5);
-        delay.delay_seconds(1.5);
-        shooter.set(0);
-        loader.set(0);
-        sweeper.set(0);
     }
 
-    public void autoIntake(double time) {
-        sweeper.set(0.5);
-        loader.set(.25);
-        delay.delay_seconds(time);
-        shooterMotorsOffAuto();
+    // From this cycle's SensorSnapshot
+    public double getShooterError() {
+        return shooterTargetRPM - sensors.shooterRPM;
+    }
+
+    // At the closed loop target on this cycle's reading
+    public boolean shooterAtSpeed() {
+        return shooterClosedLoop == true && Math.abs(getShooterError()) < shooterRPMTolerance;
+    }
+
+    // Adds recoveryBoost to the shooter output, open or closed loop.
+    // The Spark MAX arbitrary feedforward is in volts.
+    public void boostShooter(boolean on) {
+        double boost = 0.0;
+
+        if (on == true) {
+            boost = recoveryBoost;
+        }
+        if (shooterClosedLoop == true) {
+            shooterPID.setReference(shooterTargetRPM, ControlType.kVelocity, 0, boost * 12.0);
+        } else {
+            shooter.set(Math.min(shooterPower + boost, 1.0));
+        }
+    }
+
+    public double shooterRPM() {
+        return Math.abs(shooterEncoder.getVelocity());
     }
 
     public void autoIntakeCont() {
@@ -128,21 +204,294 @@ public class Shooter extends Robot {
         sweeper.set(0);
         loader.set(0);
         shooter.set(0);
+        shooterClosedLoop = false;
+        shooterPower = 0.0;
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Autonomous steps
+    ///////////////////////////////////////////////////////////////
+    // Intake and shooter actions for the autonomous executor, see
+    // AutoStep. Times and the shooter speed come from Robot.sensors.
+
+    public AutoStep dropIntakeStep() {
+        return new TimedStep(1.0, 0.0, 0.0, 1.5);
+    }
+
+    public AutoStep intakeStep(double time) {
+        return new TimedStep(0.5, 0.25, 0.0, time);
+    }
+
+    public AutoStep kickDownStep() {
+        return new TimedStep(0.7, -0.5, -0.7, 0.2);
+    }
+
+    public AutoStep kickDown2BallStep() {
+        return new TimedStep(0.7, -0.3, -0.5, 0.4);
+    }
+
+    // Runs the intake until interrupted, for racing against a drive
+    // or turn. Only the sweeper and loader are turned off at the end.
+    public AutoStep intakeContStep() {
+        return new AutoStep() {
+            public void start() {
+                autoIntakeCont();
+            }
+
+            public boolean execute() {
+                return false;
+            }
+
+            public void end(boolean interrupted) {
+                sweeper.set(0);
+                loader.set(0);
+            }
+        };
+    }
+
+    // Starts the shooter and finishes at once, leaving it running.
+    // Put it ahead of a drive so a following shootStep() at the same
+    // power finds the wheel already up to speed.
+    public AutoStep spinUpStep(double power) {
+        return new AutoStep() {
+            public void start() {
+                setShooterPower(power);
+            }
+
+            public boolean execute() {
+                return true;
+            }
+
+            public void end(boolean interrupted) {
+            }
+        };
+    }
+
+    // Closed loop spinUpStep(), ahead of a shootRPMStep() at the same RPM
+    public AutoStep spinUpRPMStep(double rpm) {
+        return new AutoStep() {
+            public void start() {
+                setShooterRPM(rpm);
+            }
+
+            public boolean execute() {
+                return true;
+            }
+
+            public void end(boolean interrupted) {
+            }
+        };
     }
 
-    public void kickDownAuto() {
-        sweeper.set(0.7);
-        shooter.set(-0.7);
-        loader.set(-0.5);
-        delay.delay_seconds(0.2);
-        shooterMotorsOffAuto();
+    // Shoots a number of balls at an open loop power, waiting for the
+    // wheel to recover between them. See ShotRecovery.
+    public AutoStep shootStep(double power, int balls) {
+        return new ShootStep(power, false, balls);
     }
 
-    public void kickDown2BallAuto() {
-        sweeper.set(0.7);
-        shooter.set(-0.5);
-        loader.set(-0.3);
-        delay.delay_seconds(0.4);
-        shooterMotorsOffAuto();
+    // Same as shootStep() with the Spark MAX holding rpm
+    public AutoStep shootRPMStep(double rpm, int balls) {
+        return new ShootStep(rpm, true, balls);
+    }
+
+    // Sets the sweeper, loader and shooter for a time, then all off
+    class TimedStep implements AutoStep {
+        final double sweeperOut;
+        final double loaderOut;
+        final double shooterOut;
+        final double seconds;
+        long startTime;
+
+        TimedStep(double sweeperOut, double loaderOut, double shooterOut, double seconds) {
+            this.sweeperOut = sweeperOut;
+            this.loaderOut = loaderOut;
+            this.shooterOut = shooterOut;
+            this.seconds = seconds;
+        }
+
+        public void start() {
+            startTime = sensors.time;
+            sweeper.set(sweeperOut);
+            loader.set(loaderOut);
+            setShooterPower(shooterOut);
+        }
+
+        public boolean execute() {
+            return (sensors.time - startTime) / 1e9 >= seconds;
+        }
+
+        public void end(boolean interrupted) {
+            shooterMotorsOffAuto();
+        }
+    }
+
+    // Sets the shooter and runs a ShotRecovery one update per tick
+    class ShootStep implements AutoStep {
+        final double setpoint; // power, or RPM if closedLoop
+        final boolean closedLoop;
+        final ShotRecovery recovery;
+
+        ShootStep(double setpoint, boolean closedLoop, int balls) {
+            this.setpoint = setpoint;
+            this.closedLoop = closedLoop;
+            recovery = new ShotRecovery(balls);
+        }
+
+        public void start() {
+            if (closedLoop == true) {
+                setShooterRPM(setpoint);
+            } else {
+                setShooterPower(setpoint);
+            }
+            recovery.start(sensors.shooterRPM, sensors.time);
+        }
+
+        public boolean execute() {
+            return recovery.update(sensors.shooterRPM, sensors.time);
+        }
+
+        public void end(boolean interrupted) {
+            shooterMotorsOffAuto();
+        }
+    }
+
+    // Spins up, then feeds until "balls" dips below the baseline RPM
+    // have been seen, gating the feed and boosting the shooter between
+    // them. update() makes one state check per call and returns true
+    // when done. If no dip is seen the feed gives up after
+    // feedTimeout, so a missing ball only costs that long.
+    //
+    // Under setShooterRPM() the feed starts once shooterAtSpeed() has
+    // held for shooterReadyCount readings, and the recovery boost is
+    // added to the Spark MAX loop as arbitrary feedforward.
+    class ShotRecovery {
+        static final int SPIN_UP = 0;
+        static final int FEED = 1;
+        static final int BOOST = 2;
+        static final int RECOVER = 3;
+        static final int FOLLOW_THROUGH = 4;
+
+        final int balls;
+        boolean closedLoop;
+        int state;
+        long stateTime;
+        double baseline;
+        double lastRPM;
+        int readyCount;
+        int shots;
+
+        ShotRecovery(int balls) {
+            this.balls = balls;
+        }
+
+        // After the shooter has been set, with its RPM and System.nanoTime()
+        void start(double rpm, long time) {
+            closedLoop = shooterClosedLoop;
+            state = SPIN_UP;
+            stateTime = time;
+            lastRPM = rpm;
+            readyCount = 0;
+            shots = 0;
+        }
+
+        boolean update(double rpm, long time) {
+            double elapsed = (time - stateTime) / 1e9;
+
+            switch (state) {
+                case SPIN_UP:
+                    // Counted from when the shooter was set, which may
+                    // have been during an earlier spinUpStep().
+                    elapsed = (time - shooterStartTime) / 1e9;
+                    if (closedLoop == true) {
+                        spinUpClosedLoop(rpm, elapsed, time);
+                        break;
+                    }
+                    // 0.5 sec, then until two readings agree, at most 1.5 sec.
+                    if ((elapsed >= 0.5 && Math.abs(rpm - lastRPM) <= rpm * recoverFraction / 2.0)
+                            || elapsed >= 1.5) {
+                        baseline = rpm;
+                        System.out.println("Shooter baseline RPM: " + baseline);
+                        feed(true, time);
+                    }
+                    lastRPM = rpm;
+                    break;
+                case FEED:
+                    if (rpm < baseline * (1.0 - shotDipFraction)) {
+                        shots++;
+                        System.out.println("Shot " + shots + " dip RPM: " + rpm);
+                        feed(false, time);
+                        if (shots >= balls) {
+                            // The dip is the ball on the wheel, let it leave
+                            enter(FOLLOW_THROUGH, time);
+                            break;
+                        }
+                        boostShooter(true);
+                        enter(BOOST, time);
+                    } else if (elapsed > feedTimeout) {
+                        System.out.println("No shot detected, " + shots + " of " + balls);
+                        return true;
+                    }
+                    break;
+                case BOOST:
+                    if (rpm >= baseline || elapsed >= recoveryBoostTime) {
+                        boostShooter(false);
+                        enter(RECOVER, time);
+                    }
+                    break;
+                case RECOVER:
+                    if (Math.abs(rpm - baseline) <= baseline * recoverFraction) {
+                        feed(true, time);
+                    } else if (elapsed > recoveryTimeout) {
+                        System.out.println("Shooter recovery timed out");
+                        feed(true, time);
+                    }
+                    break;
+                case FOLLOW_THROUGH:
+                    if (elapsed >= followThroughTime) {
+                        return true;
+                    }
+                    break;
+            }
+            return false;
+        }
+
+        // shooterReadyCount readings at speed in a row, at most
+        // spinUpTimeout. The target is the baseline for the dips,
+        // unless the wheel never got there.
+        void spinUpClosedLoop(double rpm, double elapsed, long time) {
+            if (shooterAtSpeed() == true) {
+                readyCount++;
+            } else {
+                readyCount = 0;
+            }
+            if (readyCount >= shooterReadyCount) {
+                shooterSpinUpTime = elapsed * 1000.0;
+                System.out.println("Shooter at " + shooterTargetRPM + " RPM in " + shooterSpinUpTime + " msec");
+                baseline = shooterTargetRPM;
+            } else if (elapsed > spinUpTimeout) {
+                System.out.println("Shooter spin up timed out, error RPM: " + getShooterError());
+                baseline = Math.min(rpm, shooterTargetRPM);
+            } else {
+                return;
+            }
+            feed(true, time);
+        }
+
+        void enter(int newState, long time) {
+            state = newState;
+            stateTime = time;
+        }
+
+        // Starts or gates the feed, starting it enters FEED
+        void feed(boolean on, long time) {
+            if (on == true) {
+                loader.set(feedPower);
+                sweeper.set(feedPower);
+                enter(FEED, time);
+            } else {
+                loader.set(0);
+                sweeper.set(0);
+            }
+        }
     }
 }
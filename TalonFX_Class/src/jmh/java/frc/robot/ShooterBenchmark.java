@@ -0,0 +1,35 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  ShooterBenchmark.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  JMH benchmark for the TalFX_Shooter velocity to motor
+//            speed conversion.
+//
+//  Remarks:  Uses the static computeMotorSpeed() since creating a
+//            TalFX_Shooter needs TalonFX hardware.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShooterBenchmark {
+
+    double velocity = 60.0;      //  ft/sec
+    double diameter = 4.0;       //  inches
+    double overdrive = 1.46;
+
+    @Benchmark
+    public double computeMotorSpeed()
+    {
+        return(TalFX_Shooter.computeMotorSpeed(velocity,diameter,overdrive));
+    }
+}
@@ -0,0 +1,139 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  TrajectoryBenchmark.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  JMH benchmarks for the TrajectoryComputations solvers
+//            and position functions.
+//
+//  Remarks:  Run with ./gradlew jmh.  The target distance and
+//            velocity are typical mid-field values that have both
+//            a shortest and a longest route solution.
+//
+//            The batch benchmarks score BATCH_SIZE (theta, v)
+//            candidates with evaluateBatch() and with one
+//            evaluate() call per candidate.  Both compute tof_x,
+//            tof_y and the miss distance.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TrajectoryBenchmark {
+
+    double x_target = 200.0;   //  inches
+    double v = 40.0;           //  ft/sec
+    double theta = 45.0;       //  degrees
+    double t = 0.5;            //  seconds
+
+    static final int BATCH_SIZE = 256;
+
+    TrajectoryComputations scan;
+    TrajectoryComputations bracketed;
+    TrajectoryResult result;
+
+    double batch_theta[] = new double[BATCH_SIZE];
+    double batch_v[] = new double[BATCH_SIZE];
+    double batch_tof_x[] = new double[BATCH_SIZE];
+    double batch_tof_y[] = new double[BATCH_SIZE];
+    double batch_miss[] = new double[BATCH_SIZE];
+
+    @Setup
+    public void setup()
+    {
+        scan = new TrajectoryComputations(x_target,v,98.25,0.0);
+        scan.set_debug(0);
+
+        bracketed = new TrajectoryComputations(x_target,v,98.25,0.0);
+        bracketed.set_debug(0);
+        bracketed.set_solver_mode(TrajectoryComputations.SOLVER_BRACKETED);
+
+        result = new TrajectoryResult();
+
+        //  16 angles from 25 to 85 degrees at each of 16 velocities
+        //  from 25 to 62.5 ft/sec
+        for(int i=0;i<BATCH_SIZE;i++)  {
+            batch_theta[i]=25.0+4.0*(i%16);
+            batch_v[i]=25.0+2.5*(i/16);
+        }
+    }
+
+    @Benchmark
+    public double solve4Theta_scan()
+    {
+        return(scan.solve4Theta());
+    }
+
+    @Benchmark
+    public double solve4Theta_max_scan()
+    {
+        return(scan.solve4Theta_max());
+    }
+
+    @Benchmark
+    public double solve4Theta_bracketed()
+    {
+        return(bracketed.solve4Theta());
+    }
+
+    @Benchmark
+    public double solve4Theta_max_bracketed()
+    {
+        return(bracketed.solve4Theta_max());
+    }
+
+    @Benchmark
+    public double solveTheta_static()
+    {
+        return(TrajectoryComputations.solveTheta(x_target,98.25,TrajectoryComputations.y_floor,
+            TrajectoryComputations.arm_length,v,false,0.01,result));
+    }
+
+    @Benchmark
+    public double computeXposition()
+    {
+        return(scan.computeXposition(theta,v,t));
+    }
+
+    @Benchmark
+    public double computeYposition()
+    {
+        return(scan.computeYposition(theta,v,t));
+    }
+
+    @Benchmark
+    public double evaluateBatch()
+    {
+        TrajectoryComputations.evaluateBatch(x_target,98.25,TrajectoryComputations.y_floor,
+            TrajectoryComputations.arm_length,batch_theta,batch_v,BATCH_SIZE,
+            batch_tof_x,batch_tof_y,batch_miss,false);
+        return(batch_miss[BATCH_SIZE-1]);
+    }
+
+    @Benchmark
+    public double evaluatePerCandidate()
+    {
+        double v0_y;
+        double tof;
+
+        for(int i=0;i<BATCH_SIZE;i++)  {
+            TrajectoryComputations.evaluate(x_target,98.25,TrajectoryComputations.y_floor,
+                TrajectoryComputations.arm_length,batch_v[i],batch_theta[i],result);
+            tof=result.tof_x;
+            v0_y=12.0*batch_v[i]*Math.sin(batch_theta[i]*Math.PI/180.0);
+            batch_tof_x[i]=tof;
+            batch_tof_y[i]=result.tof_y_min;
+            batch_miss[i]=v0_y*tof - 0.5*TrajectoryComputations.g*tof*tof - result.y;
+        }
+        return(batch_miss[BATCH_SIZE-1]);
+    }
+}
@@ -0,0 +1,159 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  AdaptiveFeedforward.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Learns the steady state motor output of one shooter
+//            motor while the robot runs.  Every time the velocity
+//            loop settles, the converged (velocity, output) pair is
+//            folded into an interpolation table on the same 5ft/sec
+//            grid as TalFX_Shooter.tbl_lookup, and the next spin-up
+//            starts from the learned value.
+//
+//  Remarks:  Exponential forgetting:  each observation moves the
+//            two grid entries on either side of its velocity toward
+//            the observed output by a fraction alpha, split by how
+//            close the velocity is to each entry.  Older
+//            observations fade geometrically, so the table follows
+//            battery sag and wheel wear through a match.
+//
+//            A fraction global_alpha of the relative error is also
+//            applied to every entry, since a sagging battery raises
+//            the required output at all speeds, not just the one
+//            being used.
+//
+//            Learned values live for the life of the object, they
+//            are not written to a file.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+class AdaptiveFeedforward {
+
+    private final double table[];
+    private final double step;
+
+    private double alpha = 0.5;
+    private double global_alpha = 0.1;
+    private int observations = 0;
+
+    //  Starts from a copy of the given table, "step" ft/sec apart
+    AdaptiveFeedforward(double initial[],double step)
+    {
+        this.table=initial.clone();
+        this.step=step;
+    }
+
+    void setAlpha(double local,double global)
+    {
+        alpha=local;
+        global_alpha=global;
+    }
+
+    int getObservations()
+    {
+        return(observations);
+    }
+
+    double getEntry(int i)
+    {
+        return(table[i]);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double predict(double velocity)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Learned output at a belt velocity.
+    //
+    //  Arguments:Velocity in feet per second
+    //
+    //  Returns:  Fractional output (0,1), always positive.
+    //
+    //  Remarks:  Same interpolation as TalFX_Shooter.lookupOutput(),
+    //            extrapolating along the last segment.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double predict(double velocity)
+    {
+        double position;
+        double output;
+        int i;
+
+        position=Math.abs(velocity)/step;
+        i=segment(position);
+
+        output=table[i]+(position-i)*(table[i+1]-table[i]);
+        if(output>1.0)  {
+            output=1.0;
+        }
+        return(output);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int learn(double velocity,double output)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Folds one converged observation into the table.
+    //
+    //  Arguments:Target belt velocity (ft/sec) and the output the
+    //            loop settled at.  The sign is ignored.
+    //
+    //  Returns:  Zero if the observation was used, -1 if rejected.
+    //
+    //  Remarks:  Outputs outside (0,1] are rejected, as are
+    //            velocities past the end of the table where the
+    //            extrapolated segment has no entry of its own.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int learn(double velocity,double output)
+    {
+        double position;
+        double frac;
+        double error;
+        double ratio;
+        double predicted;
+        int i;
+        int k;
+
+        output=Math.abs(output);
+        position=Math.abs(velocity)/step;
+        if((output<=0.0)||(output>1.0)||(position>table.length-1))  {
+            return(-1);
+        }
+
+        predicted=predict(velocity);
+        error=output-predicted;
+
+        //  Whole table:  scale toward the observed ratio
+        if(predicted>0.0)  {
+            ratio=1.0+global_alpha*(error/predicted);
+            for(k=1;k<table.length;k++)  {
+                table[k]*=ratio;
+            }
+        }
+
+        //  Local:  the two bracketing entries, what is left of the error
+        error=output-predict(velocity);
+        i=segment(position);
+        frac=position-i;
+        table[i]+=alpha*(1.0-frac)*error;
+        table[i+1]+=alpha*frac*error;
+
+        observations++;
+        return(0);
+    }
+
+    //  Lower table index of the segment containing position
+    private int segment(double position)
+    {
+        int i=(int)position;
+
+        if(i>table.length-2)  {
+            i=table.length-2;
+        }
+        return(i);
+    }
+}
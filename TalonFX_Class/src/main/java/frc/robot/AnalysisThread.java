@@ -1,5 +1,7 @@
 package frc.robot;
 
+import java.io.File;
+
 /////////////////////////////////////////////////////////////////////
 //  Class:  AnalysisThread
 /////////////////////////////////////////////////////////////////////
@@ -26,6 +28,13 @@ package frc.robot;
 //        a table for rapid convergence.  This will be part of
 //        robot_v1.7-alpha.zip.
 //
+//        Each stable point (velocity, output, time to stability,
+//        residual error) is recorded per motor.  At the end of the
+//        sweep the points are written to the characterization
+//        file of each motor under /home/lvuser, which
+//        TalFX_Shooter loads at construction in place of the
+//        built in tbl_lookup values.
+//
 /////////////////////////////////////////////////////////////////////
 /////////////////////////////////////////////////////////////////////
 class AnalysisThread implements Runnable {
@@ -44,6 +53,10 @@ class AnalysisThread implements Runnable {
 	Thread t;
 	Runtime r = Runtime.getRuntime();
 	private Delay delay;
+
+    //  One point per 5 ft/sec from 0 to 75 ft/sec
+    private ShooterCharacterization lf_char = new ShooterCharacterization(16);
+    private ShooterCharacterization rf_char = new ShooterCharacterization(16);
 	
 	// Constructor
 	AnalysisThread(String threadname) {
@@ -70,23 +83,10 @@ class AnalysisThread implements Runnable {
 
                 if(speed_change==1)  {
 
-                    //  re-initialize motor count and init flag
-                    //  these are private data members of TalFX_Shooter
-                    Robot.lf_shoot.resetCount();
-                    Robot.rf_shoot.resetCount();
-
-                    Robot.lf_shoot.reInit();
-                    Robot.rf_shoot.reInit();
-                
-                    //  reset the target belt velocity
-
-                    Robot.lf_shoot.setTargetVelocity(v); 
-                 
-                    Robot.rf_shoot.setTargetVelocity(v); 
-                
-                    //  Compute rotational speed target in counts/100msec
-                    Robot.lf_shoot.target_speed=Robot.lf_shoot.computeMotorSpeed(Robot.lf_shoot.getTargetVelocity());
-                    Robot.rf_shoot.target_speed=Robot.rf_shoot.computeMotorSpeed(Robot.lf_shoot.getTargetVelocity());
+                    //  reset the target belt velocity and rotational
+                    //  speed target in counts/100msec of both motors,
+                    //  and re-initialize their count and init flags
+                    Robot.shooters.setTargetVelocity(v);
 
                     //  zero the flag so we don't come back into this
                     //  block until we want to.
@@ -95,18 +95,26 @@ class AnalysisThread implements Runnable {
                 
 
                               
-                if(rf_status!=1) {
-                    rf_status=Robot.rf_shoot.setVelocity_auto();
-                }
-                delay.delay_milliseconds(10);
-                if(lf_status!=1)  {	
-                    lf_status=Robot.lf_shoot.setVelocity_auto();
+                //  One synchronized step of both motors, paced at
+                //  20 msec since update() does not block.
+                if(lf_status!=1)  {
+                    lf_status=Robot.shooters.update();
+                    rf_status=lf_status;
                 }
+                delay.delay_milliseconds(20);
                 
                 //  If both motors are stable, continue running for
                 //  the duration, reset flags and increment the
                 //  velocity for the next speed change.
                 if((lf_status==1)&&(rf_status==1)) {
+
+                    System.out.printf("Velocity = %.3f ft/sec  motor cmd = %.3f  %.3f\n",
+                        v,Robot.lf_shoot.getMotorOutput(),Robot.rf_shoot.getMotorOutput());
+
+                    lf_char.add(v,Robot.lf_shoot.getMotorOutput(),Robot.lf_shoot.getElapsedTime(),
+                        Robot.lf_shoot.getResidualError());
+                    rf_char.add(v,Robot.rf_shoot.getMotorOutput(),Robot.rf_shoot.getElapsedTime(),
+                        Robot.rf_shoot.getResidualError());
                               
                     //  keep the motors running for duration in msec
                     delay.delay_milliseconds(duration);
@@ -124,8 +132,10 @@ class AnalysisThread implements Runnable {
                         isactive=0;
                         
                         //  Stop the motors
-                        Robot.lf_shoot.stop();
-                        Robot.rf_shoot.stop();
+                        Robot.shooters.stop();
+
+                        saveCharacterization(Robot.lf_shoot,lf_char);
+                        saveCharacterization(Robot.rf_shoot,rf_char);
 
                     }
                    
@@ -154,6 +164,16 @@ class AnalysisThread implements Runnable {
     }  //  run function
 
 
+    //  Writes one motor's sweep to its characterization file
+    private void saveCharacterization(TalFX_Shooter shooter,ShooterCharacterization points)
+    {
+        File file = ShooterCharacterization.fileFor(shooter.getCanId());
+
+        if(points.save(file,shooter.getCanId(),shooter.getWheelDiameter(),shooter.getOverdrive())==0)  {
+            System.out.printf("Characterization written to %s\n",file.getPath());
+        }
+    }
+
     //  Access functions for private data members
     int setDuration(double time_msec)
     {
@@ -0,0 +1,331 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  DragTrajectory.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Alternate trajectory engine that includes air
+//            resistance and Magnus lift from backspin.  There is
+//            no closed form for this, so the ball is integrated
+//            with a fixed step fourth order Runge-Kutta (RK4)
+//            integrator until it crosses the target plane.
+//
+//            Selected in TrajectoryComputations via
+//            set_model(MODEL_DRAG).  The vacuum model remains the
+//            default.
+//
+//  Remarks:  Same coordinate system as TrajectoryComputations,
+//            origin at the arm pivot, distances in inches,
+//            launch velocity in ft/sec, angles in degrees.  The
+//            ball leaves from the end of the arm.
+//
+//            Internally velocities are inches/second, so gravity
+//            is TrajectoryComputations.g (ft/sec^2) times 12.
+//            Note the vacuum model divides inches/second by g
+//            directly, so with drag and lift set to zero the two
+//            models will not agree until that is resolved.
+//
+//            At the 0.01 second step a low arc solve integrates
+//            5 to 10 shots of at most about 100 steps each, under
+//            50 usec on a desktop JVM and well inside 1 msec on the
+//            roboRIO.  High arc solves start from near vertical
+//            where flights are long and take several times that.
+//
+//            State and derivative buffers are allocated once in
+//            the constructor and reused, a solve allocates
+//            nothing.  An object must not be shared between
+//            threads.
+//
+//            Ball constants are for the 2022 cargo: 9.5 inch
+//            diameter, 270 grams.  The drag and lift coefficients
+//            are starting points to be tuned against real shots.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+class DragTrajectory {
+
+    //  Ball and air parameters (SI units, converted in the constructor)
+    static final double BALL_DIAMETER = 9.5;     //  inches
+    static final double BALL_MASS = 0.270;       //  kg
+    static final double AIR_DENSITY = 1.225;     //  kg/m^3
+    static final double DRAG_COEFF = 0.47;       //  sphere
+    static final double LIFT_COEFF = 0.15;       //  backspin, to be tuned
+
+    //  Integration time step in seconds and the longest flight
+    //  integrated before giving up.
+    static final double TIME_STEP = 0.01;
+    static final double MAX_FLIGHT_TIME = 4.0;
+
+    //  Coarse bracketing step in degrees for the angle search
+    static final double BRACKET_STEP = 4.0;
+
+    private double k_drag;    //  drag acceleration / speed^2, 1/inch
+    private double k_lift;    //  lift acceleration / speed^2, 1/inch
+    private double g_in;      //  gravity in inches/sec^2
+    private double dt;
+
+    private double theta_tolerance = 0.01;
+
+    //  Reusable integrator buffers: state is {x, y, vx, vy}
+    private final double state[] = new double[4];
+    private final double temp[] = new double[4];
+    private final double k1[] = new double[4];
+    private final double k2[] = new double[4];
+    private final double k3[] = new double[4];
+    private final double k4[] = new double[4];
+
+    //  Results of the last integration
+    private double last_tof;
+    private int last_steps;
+    private int trajectories;
+
+    DragTrajectory()
+    {
+        this(DRAG_COEFF,LIFT_COEFF);
+    }
+
+    DragTrajectory(double drag_coeff,double lift_coeff)
+    {
+        double area;
+        double scale;
+
+        //  0.5*rho*C*A/m has units of 1/meter, convert to 1/inch
+        area=Math.PI*Math.pow(0.5*BALL_DIAMETER*0.0254,2.0);
+        scale=0.5*AIR_DENSITY*area/BALL_MASS*0.0254;
+
+        k_drag=scale*drag_coeff;
+        k_lift=scale*lift_coeff;
+        g_in=TrajectoryComputations.g*12.0;
+        dt=TIME_STEP;
+    }
+
+    void setTimeStep(double seconds)  { dt=seconds; }
+    double getTimeStep()  { return(dt); }
+    void setThetaTolerance(double tolerance)  { theta_tolerance=tolerance; }
+    double getLastTimeOfFlight()  { return(last_tof); }
+    int getLastSteps()  { return(last_steps); }
+    int getTrajectories()  { return(trajectories); }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double computeMiss( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Integrates one shot and reports how far above or
+    //            below the target it crosses the target plane.
+    //
+    //  Arguments:x_target, y_target, y_floor, arm_length (inches),
+    //            launch velocity (ft/sec) and angle (degrees).
+    //
+    //  Returns:  Height of the ball above the target at the target
+    //            plane in inches, negative is below.
+    //
+    //  Remarks:  Integration stops at the first step that crosses
+    //            the target plane, the crossing height and time are
+    //            interpolated within that step.
+    //
+    //            It also stops as soon as the ball is descending
+    //            below the target height short of the plane, since
+    //            the shot can only be low from there.  The miss is
+    //            then the height error less the remaining distance,
+    //            which is negative and meets the true miss where the
+    //            two cases join.  The time of flight is not
+    //            meaningful for such a shot.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double computeMiss(double x_target,double y_target,double y_floor,double arm_length,
+                       double v,double theta_deg)
+    {
+        double theta_r=theta_deg*Math.PI/180.0;
+        double y_goal=y_target-y_floor;
+        double t=0.0;
+        double x_prev;
+        double y_prev;
+        double frac;
+        int steps=0;
+
+        trajectories++;
+
+        state[0]=arm_length*Math.cos(theta_r);
+        state[1]=arm_length*Math.sin(theta_r);
+        state[2]=12.0*v*Math.cos(theta_r);
+        state[3]=12.0*v*Math.sin(theta_r);
+
+        while(t<MAX_FLIGHT_TIME)  {
+            x_prev=state[0];
+            y_prev=state[1];
+
+            step();
+            t+=dt;
+            steps++;
+
+            //  Early termination on the target plane
+            if(state[0]>=x_target)  {
+                frac=(x_target-x_prev)/(state[0]-x_prev);
+                last_tof=t-dt+frac*dt;
+                last_steps=steps;
+                return(y_prev+frac*(state[1]-y_prev)-y_goal);
+            }
+
+            //  Falling and already below the target short of the
+            //  plane, the shot is low.  Report how far short so the
+            //  miss stays continuous for the solver.
+            if((state[3]<0.0)&&(state[1]<y_goal))  {
+                break;
+            }
+        }
+        last_tof=t;
+        last_steps=steps;
+        return((state[1]-y_goal)-(x_target-state[0]));
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double solve4Theta( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Finds the launch angle where the shot crosses the
+    //            target plane at the target height.
+    //
+    //  Arguments:x_target, y_target, y_floor, arm_length (inches),
+    //            launch velocity (ft/sec), and max_arc.  false
+    //            returns the lowest angle solution (shortest route),
+    //            true the highest (longest route).
+    //
+    //  Returns:  The launch angle in degrees, 0.0 if there is no
+    //            solution, the same convention as the vacuum model.
+    //
+    //  Remarks:  Coarse steps of BRACKET_STEP degrees locate a sign
+    //            change in the miss, walking up from line of sight
+    //            for the low arc or down from vertical for the high
+    //            arc.  The bracket is refined with the Illinois
+    //            variant of regula falsi.  The solution is flown
+    //            once more so getLastTimeOfFlight() belongs to the
+    //            returned angle.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double solve4Theta(double x_target,double y_target,double y_floor,double arm_length,
+                       double v,boolean max_arc)
+    {
+        double min_theta;
+        double theta_a;
+        double theta_b;
+        double f_a;
+        double f_b;
+        double step;
+
+        trajectories=0;
+
+        min_theta=(180.0/Math.PI)*Math.atan((y_target-y_floor)/x_target);
+
+        if(max_arc==true)  {
+            theta_a=89.0;
+            step=-BRACKET_STEP;
+        }  else  {
+            theta_a=min_theta;
+            step=BRACKET_STEP;
+        }
+        f_a=computeMiss(x_target,y_target,y_floor,arm_length,v,theta_a);
+
+        while(true)  {
+            theta_b=theta_a+step;
+            if(theta_b>89.0)  {
+                theta_b=89.0;
+            }  else if(theta_b<min_theta)  {
+                theta_b=min_theta;
+            }
+            f_b=computeMiss(x_target,y_target,y_floor,arm_length,v,theta_b);
+
+            if((f_a<=0.0)==(f_b>=0.0))  {
+                theta_a=refine(x_target,y_target,y_floor,arm_length,v,theta_a,theta_b,f_a,f_b);
+
+                //  The refinement may stop on an interpolated angle it
+                //  never integrated, so fly the answer once to leave
+                //  its time of flight in last_tof.
+                computeMiss(x_target,y_target,y_floor,arm_length,v,theta_a);
+                return(theta_a);
+            }
+            if((theta_b==89.0)||(theta_b==min_theta))  {
+                return(0.0);
+            }
+            theta_a=theta_b;
+            f_a=f_b;
+        }
+    }
+
+    //  Illinois regula falsi on the miss within [theta_a,theta_b]
+    private double refine(double x_target,double y_target,double y_floor,double arm_length,
+                          double v,double theta_a,double theta_b,double f_a,double f_b)
+    {
+        final int max_iterations=30;
+        double theta_c=theta_b;
+        double f_c;
+        int side=0;
+        int i;
+
+        for(i=0;i<max_iterations;i++)  {
+            theta_c=(theta_a*f_b-theta_b*f_a)/(f_b-f_a);
+            if(Math.abs(theta_b-theta_a)<theta_tolerance)  {
+                break;
+            }
+            f_c=computeMiss(x_target,y_target,y_floor,arm_length,v,theta_c);
+            if(Math.abs(f_c)<1e-3)  {
+                break;
+            }
+            if((f_c>0.0)==(f_b>0.0))  {
+                theta_b=theta_c;
+                f_b=f_c;
+                if(side==-1)  {
+                    f_a*=0.5;
+                }
+                side=-1;
+            }  else  {
+                theta_a=theta_c;
+                f_a=f_c;
+                if(side==1)  {
+                    f_b*=0.5;
+                }
+                side=1;
+            }
+        }
+        return(theta_c);
+    }
+
+    //  One RK4 step of the state buffer
+    private void step()
+    {
+        int i;
+
+        derivative(state,k1);
+        for(i=0;i<4;i++)  {
+            temp[i]=state[i]+0.5*dt*k1[i];
+        }
+        derivative(temp,k2);
+        for(i=0;i<4;i++)  {
+            temp[i]=state[i]+0.5*dt*k2[i];
+        }
+        derivative(temp,k3);
+        for(i=0;i<4;i++)  {
+            temp[i]=state[i]+dt*k3[i];
+        }
+        derivative(temp,k4);
+        for(i=0;i<4;i++)  {
+            state[i]+=dt*(k1[i]+2.0*k2[i]+2.0*k3[i]+k4[i])/6.0;
+        }
+    }
+
+    //  Equations of motion.  Drag opposes the velocity, backspin
+    //  lift is perpendicular to it (velocity rotated 90 degrees
+    //  counterclockwise), both proportional to speed squared.
+    private void derivative(double s[],double d[])
+    {
+        double vx=s[2];
+        double vy=s[3];
+        double speed=Math.sqrt(vx*vx+vy*vy);
+
+        d[0]=vx;
+        d[1]=vy;
+        d[2]=-k_drag*speed*vx-k_lift*speed*vy;
+        d[3]=-g_in-k_drag*speed*vy+k_lift*speed*vx;
+    }
+}
@@ -0,0 +1,221 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  FiringEnvelope.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Offline generator for the reachable firing envelope.
+//            Runs solve4Theta() and solve4Theta_max() over every
+//            (distance, velocity) grid point from the tarmac edge
+//            to the far launch pad at every shooter velocity, and
+//            writes the results as FiringTable binary files for
+//            deployment from src/main/deploy.
+//
+//            The grid rows are split across a ForkJoinPool.  The
+//            same grid is also solved on a single thread so the
+//            wall-clock speedup can be reported and the two
+//            results compared.
+//
+//  Usage:    ./gradlew generateFiringEnvelope
+//
+//            or run frc.robot.FiringEnvelope directly with
+//
+//            <output directory> [scan|bracketed] [noserial]
+//
+//            "scan" (the default) uses the 0.01 degree scan of
+//            solve4Theta(), "bracketed" the Brent solver.
+//            "noserial" skips the single thread comparison run.
+//
+//  Remarks:  Desktop only, nothing here touches robot hardware.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+class FiringEnvelope {
+
+    //  Tarmac edge to the far launch pad, inches from the arm pivot
+    static final double X_START = 80.0;
+    static final double X_STEP = 2.0;
+    static final int X_COUNT = 126;
+
+    //  TalFX_Shooter velocity range, ft/sec
+    static final double V_START = 5.0;
+    static final double V_STEP = 0.5;
+    static final int V_COUNT = 141;
+
+    //  Rows per fork-join leaf task
+    static final int ROWS_PER_TASK = 2;
+
+    //  Rows solved before timing starts
+    static final int WARMUP_ROWS = 8;
+
+    public static void main(String... args)
+    {
+        File out_dir = new File((args.length>0)?args[0]:"src/main/deploy");
+        int solver_mode = TrajectoryComputations.SOLVER_SCAN;
+        boolean serial = true;
+        int i;
+
+        for(i=1;i<args.length;i++)  {
+            if(args[i].equals("bracketed"))  {
+                solver_mode=TrajectoryComputations.SOLVER_BRACKETED;
+            }  else if(args[i].equals("noserial"))  {
+                serial=false;
+            }
+        }
+
+        out_dir.mkdirs();
+        generate(FiringTable.ARC_MIN,solver_mode,serial,new File(out_dir,"firing_table_min.bin"));
+        generate(FiringTable.ARC_MAX,solver_mode,serial,new File(out_dir,"firing_table_max.bin"));
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static int generate( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Solves one arc of the envelope in parallel and,
+    //            optionally, serially, then writes the table.
+    //
+    //  Arguments:Arc selection, solver mode, whether to run the
+    //            serial comparison, and the output file.
+    //
+    //  Returns:  Zero on success, -1 if the file could not be
+    //            written or the serial and parallel results differ.
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    static int generate(int arc,int solver_mode,boolean serial,File file)
+    {
+        long start;
+        double parallel_msec;
+        double serial_msec;
+        FiringTable table;
+        FiringTable reference;
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        String name = (arc==FiringTable.ARC_MAX)?"max":"min";
+
+        table = new FiringTable(arc,X_START,X_STEP,X_COUNT,V_START,V_STEP,V_COUNT);
+
+        //  Warm up the JIT on a few rows so neither timed run pays
+        //  the compile cost.
+        new RowTask(table,solver_mode,0,WARMUP_ROWS).solveRows();
+
+        start=System.nanoTime();
+        pool.invoke(new RowTask(table,solver_mode,0,X_COUNT));
+        parallel_msec=(System.nanoTime()-start)*1e-6;
+        System.out.printf("arc %s: parallel %.1f msec on %d threads\n",
+            name,parallel_msec,pool.getParallelism());
+        pool.shutdown();
+
+        if(serial==true)  {
+            reference = new FiringTable(arc,X_START,X_STEP,X_COUNT,V_START,V_STEP,V_COUNT);
+
+            start=System.nanoTime();
+            new RowTask(reference,solver_mode,0,X_COUNT).solveRows();
+            serial_msec=(System.nanoTime()-start)*1e-6;
+            System.out.printf("arc %s: serial %.1f msec, speedup %.2fx\n",
+                name,serial_msec,serial_msec/parallel_msec);
+
+            if(sameSolutions(table,reference)==false)  {
+                System.out.printf("arc %s: serial and parallel results differ\n",name);
+                return(-1);
+            }
+        }
+
+        if(table.save(file)!=0)  {
+            return(-1);
+        }
+        System.out.printf("arc %s: wrote %s (%d bytes)\n",name,file.getPath(),file.length());
+        return(0);
+    }
+
+    //  Spot check at every grid point, each grid point is solved
+    //  independently so the results must agree exactly.
+    private static boolean sameSolutions(FiringTable a,FiringTable b)
+    {
+        int i;
+        int j;
+        double x;
+        double v;
+
+        for(i=0;i<a.getNx();i++)  {
+            for(j=0;j<a.getNv();j++)  {
+                x=a.getX0()+i*a.getDx();
+                v=a.getV0()+j*a.getDv();
+                if(a.isReachable(x,v)!=b.isReachable(x,v))  {
+                    return(false);
+                }
+                if(a.getTheta(x,v)!=b.getTheta(x,v))  {
+                    return(false);
+                }
+            }
+        }
+        return(true);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Class:  RowTask
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Solves grid rows [row_start,row_end).  Splits in
+    //            half until ROWS_PER_TASK rows remain.
+    //
+    //  Remarks:  TrajectoryComputations writes its x and y members
+    //            while solving, so every leaf has its own object.
+    //            Leaves write disjoint rows of the table.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    static class RowTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FiringTable table;
+        private final int solver_mode;
+        private final int row_start;
+        private final int row_end;
+
+        RowTask(FiringTable table,int solver_mode,int row_start,int row_end)
+        {
+            this.table=table;
+            this.solver_mode=solver_mode;
+            this.row_start=row_start;
+            this.row_end=row_end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int mid;
+
+            if((row_end-row_start)<=ROWS_PER_TASK)  {
+                solveRows();
+                return;
+            }
+            mid=(row_start+row_end)>>>1;
+            invokeAll(new RowTask(table,solver_mode,row_start,mid),
+                      new RowTask(table,solver_mode,mid,row_end));
+        }
+
+        void solveRows()
+        {
+            int i;
+            int j;
+            TrajectoryComputations traj = new TrajectoryComputations();
+
+            traj.set_solver_mode(solver_mode);
+            traj.set_debug(0);
+
+            for(i=row_start;i<row_end;i++)  {
+                for(j=0;j<table.getNv();j++)  {
+                    table.solvePoint(traj,i,j);
+                }
+            }
+        }
+    }
+}
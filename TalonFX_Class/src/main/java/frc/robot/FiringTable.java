@@ -0,0 +1,428 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  FiringTable.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Precomputed firing solutions over a grid of target
+//            distance (x_target, inches) and launch velocity
+//            (ft/sec).  Each grid point holds the launch angle and
+//            time of flight from TrajectoryComputations along with
+//            a flag marking points without a solution.
+//
+//            Queries use bilinear interpolation between the four
+//            surrounding grid points.  They are O(1) and allocate
+//            nothing, so they can be called from the 20msec loop
+//            instead of solving the trajectory physics online.
+//
+//  Remarks:  The table is either built at robot init or loaded
+//            from a binary file in the deploy directory.  The
+//            file layout is:
+//
+//            int    FILE_MAGIC
+//            int    FILE_VERSION
+//            int    arc (0 = shortest route, 1 = longest route)
+//            int    nx, int nv
+//            double x0, dx, v0, dv
+//            float  theta[nx*nv]   (degrees)
+//            float  tof[nx*nv]     (seconds)
+//            byte   valid[nx*nv]   (1 = solution exists)
+//
+//            Index of grid point (i,j) is i*nv+j where i is the
+//            distance index and j the velocity index.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+class FiringTable {
+
+    static final int FILE_MAGIC = 0x46495245;  //  "FIRE"
+    static final int FILE_VERSION = 1;
+
+    static final int ARC_MIN = 0;   //  solve4Theta(), y target hit before azimuth
+    static final int ARC_MAX = 1;   //  solve4Theta_max(), y target hit after azimuth
+
+    //  Default grid: tarmac edge to the far launch pad in 5 inch
+    //  steps, and the 5-75 ft/sec shooter range in 1 ft/sec steps.
+    static final double DEFAULT_X0 = 80.0;
+    static final double DEFAULT_DX = 5.0;
+    static final int DEFAULT_NX = 51;
+    static final double DEFAULT_V0 = 5.0;
+    static final double DEFAULT_DV = 1.0;
+    static final int DEFAULT_NV = 71;
+
+    //  Largest grid load() accepts, about 100 times the default
+    static final int MAX_POINTS = 400000;
+
+    private int arc;
+    private int nx;
+    private int nv;
+    private double x0;
+    private double dx;
+    private double v0;
+    private double dv;
+
+    private float theta[];
+    private float tof[];
+    private byte valid[];
+
+    //  Empty table with the default grid, use build() or load()
+    FiringTable(int arc_select)
+    {
+        this(arc_select,DEFAULT_X0,DEFAULT_DX,DEFAULT_NX,DEFAULT_V0,DEFAULT_DV,DEFAULT_NV);
+    }
+
+    FiringTable(int arc_select,double x_start,double x_step,int x_count,
+                double v_start,double v_step,int v_count)
+    {
+        arc=arc_select;
+        allocate(x_start,x_step,x_count,v_start,v_step,v_count);
+    }
+
+    private void allocate(double x_start,double x_step,int x_count,
+                          double v_start,double v_step,int v_count)
+    {
+        x0=x_start;
+        dx=x_step;
+        nx=x_count;
+        v0=v_start;
+        dv=v_step;
+        nv=v_count;
+
+        theta=new float[nx*nv];
+        tof=new float[nx*nv];
+        valid=new byte[nx*nv];
+    }
+
+    int getArc()  { return(arc); }
+    int getNx()  { return(nx); }
+    int getNv()  { return(nv); }
+    double getX0()  { return(x0); }
+    double getDx()  { return(dx); }
+    double getV0()  { return(v0); }
+    double getDv()  { return(dv); }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int build(TrajectoryComputations traj)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Solves every grid point with the supplied
+    //            TrajectoryComputations object.
+    //
+    //  Arguments:A TrajectoryComputations object carrying the
+    //            y target and solver mode to use.  Its x_target
+    //            and v are overwritten.
+    //
+    //  Returns:  The number of grid points with a solution.
+    //
+    //  Remarks:  Use SOLVER_BRACKETED on the robot, the scan takes
+    //            several seconds for the full default grid.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int build(TrajectoryComputations traj)
+    {
+        int i;
+        int j;
+        int solved=0;
+
+        for(i=0;i<nx;i++)  {
+            for(j=0;j<nv;j++)  {
+                if(solvePoint(traj,i,j)==true)  {
+                    solved++;
+                }
+            }
+        }
+        return(solved);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  boolean solvePoint(TrajectoryComputations traj,
+    //                               int i,int j)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Solves a single grid point and stores the result.
+    //
+    //  Arguments:The solver object, distance index and velocity index.
+    //
+    //  Returns:  true when a solution exists.
+    //
+    //  Remarks:  Grid points are independent of one another so
+    //            separate rows may be solved by separate threads,
+    //            each with its own TrajectoryComputations object.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    boolean solvePoint(TrajectoryComputations traj,int i,int j)
+    {
+        double launch_theta;
+        int k=i*nv+j;
+
+        traj.set_x_target(x0+i*dx);
+        traj.v=v0+j*dv;
+
+        if(arc==ARC_MAX)  {
+            launch_theta=traj.solve4Theta_max();
+        }  else  {
+            launch_theta=traj.solve4Theta();
+        }
+
+        //  solve4Theta() reports "No solution" by returning 0.0
+        if(launch_theta==0.0)  {
+            theta[k]=0.0f;
+            tof[k]=0.0f;
+            valid[k]=0;
+            return(false);
+        }
+
+        theta[k]=(float)launch_theta;
+        //  The drag solve leaves the time of flight of its answer,
+        //  the vacuum estimate would not match the drag angle
+        if(traj.get_model()==TrajectoryComputations.MODEL_DRAG)  {
+            tof[k]=(float)traj.get_drag_tof();
+        }  else  {
+            tof[k]=(float)traj.compute_tof_x(traj.v,launch_theta);
+        }
+        valid[k]=1;
+        return(true);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  boolean isReachable(double x_target,double v)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Determines whether a shot can be interpolated from
+    //            the table.
+    //
+    //  Arguments:Target distance in inches, launch velocity ft/sec.
+    //
+    //  Returns:  true when the query is inside the grid and all four
+    //            surrounding grid points have a solution.
+    //
+    //  Remarks:  Callers should reject the shot when this is false.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    boolean isReachable(double x_target,double v)
+    {
+        int k=cellIndex(x_target,v);
+
+        if(k<0)  {
+            return(false);
+        }
+        return((valid[k]&valid[k+1]&valid[k+nv]&valid[k+nv+1])==1);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double getTheta(double x_target,double v)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Interpolated launch angle for the shot.
+    //
+    //  Arguments:Target distance in inches, launch velocity ft/sec.
+    //
+    //  Returns:  The launch angle in degrees, or 0.0 when the shot
+    //            is not reachable (same convention as solve4Theta()).
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double getTheta(double x_target,double v)
+    {
+        if(isReachable(x_target,v)==false)  {
+            return(0.0);
+        }
+        return(interpolate(theta,x_target,v));
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double getTimeOfFlight(double x_target,double v)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Interpolated time of flight for the shot.
+    //
+    //  Arguments:Target distance in inches, launch velocity ft/sec.
+    //
+    //  Returns:  Time of flight in seconds, or 0.0 when the shot
+    //            is not reachable.
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double getTimeOfFlight(double x_target,double v)
+    {
+        if(isReachable(x_target,v)==false)  {
+            return(0.0);
+        }
+        return(interpolate(tof,x_target,v));
+    }
+
+    //  Index of the lower left grid point of the cell containing the
+    //  query, or -1 if the query is outside the grid.
+    private int cellIndex(double x_target,double v)
+    {
+        double fx=(x_target-x0)/dx;
+        double fv=(v-v0)/dv;
+        int i;
+        int j;
+
+        if((fx<0.0)||(fv<0.0)||(fx>(nx-1))||(fv>(nv-1)))  {
+            return(-1);
+        }
+        i=Math.min((int)fx,nx-2);
+        j=Math.min((int)fv,nv-2);
+        return(i*nv+j);
+    }
+
+    private double interpolate(float table[],double x_target,double v)
+    {
+        double fx=(x_target-x0)/dx;
+        double fv=(v-v0)/dv;
+        int i=Math.min((int)fx,nx-2);
+        int j=Math.min((int)fv,nv-2);
+        int k=i*nv+j;
+        double tx=fx-i;
+        double tv=fv-j;
+
+        double lower=table[k]+tv*(table[k+1]-table[k]);
+        double upper=table[k+nv]+tv*(table[k+nv+1]-table[k+nv]);
+        return(lower+tx*(upper-lower));
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int save(File file)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Writes the table in the binary layout described in
+    //            the file header.
+    //
+    //  Arguments:The destination file.
+    //
+    //  Returns:  Zero on success, -1 on failure.
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int save(File file)
+    {
+        int k;
+
+        try (DataOutputStream out=new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file))))  {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(arc);
+            out.writeInt(nx);
+            out.writeInt(nv);
+            out.writeDouble(x0);
+            out.writeDouble(dx);
+            out.writeDouble(v0);
+            out.writeDouble(dv);
+            for(k=0;k<theta.length;k++)  {
+                out.writeFloat(theta[k]);
+            }
+            for(k=0;k<tof.length;k++)  {
+                out.writeFloat(tof[k]);
+            }
+            out.write(valid);
+        }  catch (IOException e)  {
+            System.out.printf("Firing table write failed: %s\n",e.getMessage());
+            return(-1);
+        }
+        return(0);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int load(File file)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Replaces the table with one read from a file
+    //            written by save().
+    //
+    //  Arguments:The source file.
+    //
+    //  Returns:  Zero on success, -1 if the file is missing, of the
+    //            wrong version, for the other arc or describes a
+    //            grid that cannot be interpolated.
+    //
+    //  Remarks:  On failure the table is left unchanged so the
+    //            caller can fall back to build().  The grid size
+    //            is checked before anything is allocated, so a
+    //            corrupt file cannot ask for a negative or huge
+    //            array.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int load(File file)
+    {
+        int k;
+
+        if(file.exists()==false)  {
+            return(-1);
+        }
+
+        try (DataInputStream in=new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file))))  {
+            if((in.readInt()!=FILE_MAGIC)||(in.readInt()!=FILE_VERSION))  {
+                System.out.printf("Firing table %s: bad header\n",file.getName());
+                return(-1);
+            }
+            if(in.readInt()!=arc)  {
+                System.out.printf("Firing table %s: wrong arc\n",file.getName());
+                return(-1);
+            }
+            int file_nx=in.readInt();
+            int file_nv=in.readInt();
+            double file_x0=in.readDouble();
+            double file_dx=in.readDouble();
+            double file_v0=in.readDouble();
+            double file_dv=in.readDouble();
+
+            //  Interpolation needs two points and a finite, positive
+            //  step on each axis.  The negated compares reject NaN.
+            if((file_nx<2)||(file_nv<2)||(file_nx>MAX_POINTS/file_nv)
+                    ||(!(file_dx>0.0))||(!(file_dv>0.0))
+                    ||(Double.isFinite(file_x0+file_nx*file_dx)==false)
+                    ||(Double.isFinite(file_v0+file_nv*file_dv)==false))  {
+                System.out.printf("Firing table %s: bad grid %d x %d\n",file.getName(),file_nx,file_nv);
+                return(-1);
+            }
+
+            float file_theta[]=new float[file_nx*file_nv];
+            float file_tof[]=new float[file_nx*file_nv];
+            byte file_valid[]=new byte[file_nx*file_nv];
+            for(k=0;k<file_theta.length;k++)  {
+                file_theta[k]=in.readFloat();
+            }
+            for(k=0;k<file_tof.length;k++)  {
+                file_tof[k]=in.readFloat();
+            }
+            in.readFully(file_valid);
+
+            x0=file_x0;
+            dx=file_dx;
+            nx=file_nx;
+            v0=file_v0;
+            dv=file_dv;
+            nv=file_nv;
+            theta=file_theta;
+            tof=file_tof;
+            valid=file_valid;
+        }  catch (IOException e)  {
+            System.out.printf("Firing table read failed: %s\n",e.getMessage());
+            return(-1);
+        }
+        return(0);
+    }
+}
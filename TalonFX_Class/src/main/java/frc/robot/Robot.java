@@ -67,6 +67,9 @@
 
 package frc.robot;
 
+import java.io.File;
+
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -93,11 +96,20 @@ public class Robot extends TimedRobot {
 
   static TalFX_Shooter lf_shoot;
   static TalFX_Shooter rf_shoot;
+
+  //  lf_shoot and rf_shoot stepped together
+  static ShooterGroup shooters;
  
   static ShootThread shoot;
   static AnalysisThread analysis;
   static double velocity;
 
+  //  Firing solutions for ranging and angle adjustment, looked up
+  //  rather than solved online.  Loaded from the deploy directory
+  //  if present, otherwise built in robotInit().
+  static FiringTable firing_table;
+  static final String FIRING_TABLE_FILE = "firing_table_min.bin";
+
   static boolean shoot_thread = false;
   static boolean analysis_thread = true;
 
@@ -127,6 +139,8 @@ public class Robot extends TimedRobot {
     //  Create the two objects with appropriate inversion state
     lf_shoot = new TalFX_Shooter(talonfx_can_id_1,false);  //  non-inverted
     rf_shoot = new TalFX_Shooter(talonfx_can_id_2,true);   //  inverted
+    shooters = new ShooterGroup(lf_shoot,rf_shoot);
+    shooters.setPredictive(true);
 
     Logic3D = new Joystick(0);
 
@@ -134,6 +148,23 @@ public class Robot extends TimedRobot {
     lf_shoot.setWheelDiameter(4.0);
     rf_shoot.setWheelDiameter(4.0);
 
+    //  Seed the motor output from the speed table
+    lf_shoot.setFeedforward(true);
+    rf_shoot.setFeedforward(true);
+
+    //  Outputs are fractions of 11V however far the battery sags
+    lf_shoot.setVoltageCompensation(TalFX_Shooter.VCOMP_TALON);
+    rf_shoot.setVoltageCompensation(TalFX_Shooter.VCOMP_TALON);
+
+    //  Close the velocity loop on the Talons.  Falls back to the
+    //  Java loop in updateVelocity() if the gains are rejected.
+    lf_shoot.setControlMode(TalFX_Shooter.CONTROL_TALON);
+    rf_shoot.setControlMode(TalFX_Shooter.CONTROL_TALON);
+
+    //  Learn the converged output of every spin-up
+    lf_shoot.setAdaptive(true);
+    rf_shoot.setAdaptive(true);
+
     System.out.printf("Wheel Diameter = %.3f inches\n\n",lf_shoot.getWheelDiameter());
 
     lf_shoot.setTargetVelocity(60.0); 
@@ -151,9 +182,50 @@ public class Robot extends TimedRobot {
     //  The minus sign here is just for the printout.  It is taken care of in
     //  the setVelocity( ... ) function.
     System.out.printf("target speed rf = %.1f counts/100msec\n",(-1*rf_shoot.target_speed));  //  inverted
+
+    initFiringTable();
   
   }
 
+  /////////////////////////////////////////////////////////////////////
+  //  Function:  void initFiringTable()
+  /////////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Loads the firing table from the deploy directory or,
+  //            failing that, builds it with the bracketed solver.
+  //
+  //  Arguments:void
+  //
+  //  Returns:  void
+  //
+  //  Remarks:  Built tables are not written back, the deploy
+  //            directory is replaced on every deploy.
+  //
+  /////////////////////////////////////////////////////////////////////
+  /////////////////////////////////////////////////////////////////////
+  void initFiringTable()
+  {
+    long start;
+    int solved;
+    File file = new File(Filesystem.getDeployDirectory(),FIRING_TABLE_FILE);
+    TrajectoryComputations traj;
+
+    firing_table = new FiringTable(FiringTable.ARC_MIN);
+
+    start=System.nanoTime();
+    if(firing_table.load(file)==0)  {
+      System.out.printf("Firing table loaded from %s in %.1f msec\n",
+        file.getPath(),(System.nanoTime()-start)*1e-6);
+      return;
+    }
+
+    traj = new TrajectoryComputations();
+    traj.set_solver_mode(TrajectoryComputations.SOLVER_BRACKETED);
+    solved=firing_table.build(traj);
+    System.out.printf("Firing table built: %d of %d solutions in %.1f msec\n",
+      solved,firing_table.getNx()*firing_table.getNv(),(System.nanoTime()-start)*1e-6);
+  }
+
   /**
    * This function is called every robot packet, no matter the mode. Use this for items like
    * diagnostics that you want ran during disabled, autonomous, teleoperated and test.
@@ -260,15 +332,16 @@ public class Robot extends TimedRobot {
     //  Here we placed inside a block associated
     //  with a button press.  Multiple presses result in multiple
     //  runs.  The velocity is set within Robot.init()
+    //  The shooter group does not block, both shooters are
+    //  read, corrected and written together every pass through
+    //  the 20 msec loop.
     if (Logic3D.getRawButton(5) == true) {
         
-          status=lf_shoot.setVelocity_teleOp();
-          status=rf_shoot.setVelocity_teleOp();
+          status=shooters.update();
        
     }  else  {
 
-          lf_shoot.stop();
-          rf_shoot.stop();
+          shooters.stop();
     }
     
    
@@ -113,15 +113,14 @@ class ShootThread implements Runnable {
 		
        while(isactive==1) {
 
-            //  start both motors, evaluate status of each with
-            //  every pass through autonomous.
+            //  start both motors, the shooter group reads, corrects
+            //  and writes both together.  update() does not block,
+            //  so this loop is paced at 20 msec.
             if(lf_status!=1) {
-                lf_status=Robot.lf_shoot.setVelocity_auto_();
+                lf_status=Robot.shooters.update();
+                rf_status=lf_status;
             }
-            delay.delay_milliseconds(10);
-            if(rf_status!=1)  {	
-                rf_status=Robot.rf_shoot.setVelocity_auto_();
-            }	
+            delay.delay_milliseconds(20);
             
             //  If both motors are stable, continue running for
             //  the duration, kill the motors and terminate the thread
@@ -130,8 +129,7 @@ class ShootThread implements Runnable {
                 //  keep the motors running for duration in msec
                 delay.delay_milliseconds(duration);
 
-                Robot.lf_shoot.stop();
-                Robot.rf_shoot.stop();
+                Robot.shooters.stop();
                 
                 t.interrupt();
                 
@@ -0,0 +1,248 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  ShooterCharacterization.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Measured belt velocity vs. steady state motor output
+//            for one shooter motor, recorded by AnalysisThread and
+//            loaded by TalFX_Shooter in place of the built in
+//            tbl_lookup values.
+//
+//  Remarks:  One file per motor, named by CAN id, kept on the
+//            roboRIO under /home/lvuser so each robot carries its
+//            own calibration and a deploy does not overwrite it.
+//            Plain text so it can be checked over ssh:
+//
+//            SHOOTER_CHARACTERIZATION <version>
+//            <can id> <wheel diameter in> <overdrive>
+//            <number of points>
+//            <velocity ft/sec> <output> <time to stability msec> <residual error counts/100msec>
+//            ...
+//
+//            Points are in strictly increasing velocity, add() and
+//            load() refuse anything else so outputAt() can walk the
+//            points in order.  Output is the magnitude, the invert
+//            state is applied by the motor.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+class ShooterCharacterization {
+
+    static final String FILE_HEADER = "SHOOTER_CHARACTERIZATION";
+    static final int FILE_VERSION = 1;
+    static final String CHAR_DIR = "/home/lvuser";
+
+    //  Far more than a sweep records, bounds the allocation in load()
+    static final int MAX_POINTS = 1000;
+
+    private double velocity[];
+    private double output[];
+    private double time_msec[];
+    private double residual[];
+    private int count;
+
+    ShooterCharacterization(int capacity)
+    {
+        velocity=new double[capacity];
+        output=new double[capacity];
+        time_msec=new double[capacity];
+        residual=new double[capacity];
+        count=0;
+    }
+
+    //  Characterization file of the motor at a CAN id
+    static File fileFor(int can_id)
+    {
+        return(new File(CHAR_DIR,"shooter_char_"+can_id+".txt"));
+    }
+
+    int getCount()  { return(count); }
+    double getVelocity(int i)  { return(velocity[i]); }
+    double getOutput(int i)  { return(output[i]); }
+    double getTime(int i)  { return(time_msec[i]); }
+    double getResidual(int i)  { return(residual[i]); }
+
+    //  Adds a point, returns -1 when full, when a value is not
+    //  finite, or when v does not exceed the previous velocity
+    int add(double v,double out,double msec,double error)
+    {
+        if(count>=velocity.length)  {
+            return(-1);
+        }
+        if(isPoint(v,out,msec,error)==false)  {
+            return(-1);
+        }
+        if((count>0)&&(v<=velocity[count-1]))  {
+            return(-1);
+        }
+        velocity[count]=v;
+        output[count]=Math.abs(out);
+        time_msec[count]=msec;
+        residual[count]=error;
+        count++;
+        return(0);
+    }
+
+    private static boolean isPoint(double v,double out,double msec,double error)
+    {
+        return(Double.isFinite(v)&&Double.isFinite(out)&&
+               Double.isFinite(msec)&&Double.isFinite(error));
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double outputAt(double v)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Linear interpolation of the measured output at a
+    //            belt velocity.
+    //
+    //  Arguments:Velocity in feet per second
+    //
+    //  Returns:  Fractional output, 0.0 if there are no points.
+    //
+    //  Remarks:  Held at the end values outside the measured range.
+    //            Relies on the increasing velocity order kept by
+    //            add() and load().
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double outputAt(double v)
+    {
+        int i;
+
+        if(count==0)  {
+            return(0.0);
+        }
+        if(v<=velocity[0])  {
+            return(output[0]);
+        }
+        for(i=1;i<count;i++)  {
+            if(v<=velocity[i])  {
+                return(output[i-1]+(v-velocity[i-1])*(output[i]-output[i-1])
+                    /(velocity[i]-velocity[i-1]));
+            }
+        }
+        return(output[count-1]);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int save(File file, ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Writes the points in the layout described in the
+    //            file header.
+    //
+    //  Arguments:The destination file and the motor's CAN id, wheel
+    //            diameter and overdrive for the record.
+    //
+    //  Returns:  Zero on success, -1 on failure.
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int save(File file,int can_id,double wheel_diameter,double overdrive)
+    {
+        int i;
+
+        try (PrintWriter out=new PrintWriter(new FileWriter(file)))  {
+            out.printf("%s %d\n",FILE_HEADER,FILE_VERSION);
+            out.printf("%d %.3f %.3f\n",can_id,wheel_diameter,overdrive);
+            out.printf("%d\n",count);
+            for(i=0;i<count;i++)  {
+                out.printf("%.3f %.4f %.1f %.1f\n",velocity[i],output[i],time_msec[i],residual[i]);
+            }
+            if(out.checkError())  {
+                throw new IOException("write error");
+            }
+        }  catch (IOException e)  {
+            System.out.printf("Characterization write failed: %s\n",e.getMessage());
+            return(-1);
+        }
+        return(0);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int load(File file)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Reads a file written by save().
+    //
+    //  Arguments:The source file.
+    //
+    //  Returns:  Zero on success, -1 if the file is missing, of a
+    //            different version, or malformed.  The points are
+    //            unchanged on failure.
+    //
+    //  Remarks:  The point count is checked against MAX_POINTS
+    //            before anything is allocated.  A value that is not
+    //            finite or a velocity that does not increase makes
+    //            the file malformed.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int load(File file)
+    {
+        String fields[];
+        int n;
+        int i;
+        double v[];
+        double out[];
+        double msec[];
+        double error[];
+
+        if(file.exists()==false)  {
+            return(-1);
+        }
+
+        try (BufferedReader in=new BufferedReader(new FileReader(file)))  {
+            fields=in.readLine().trim().split("\\s+");
+            if((fields.length!=2)||(fields[0].equals(FILE_HEADER)==false)||
+               (Integer.parseInt(fields[1])!=FILE_VERSION))  {
+                System.out.printf("%s: not a version %d characterization\n",file.getPath(),FILE_VERSION);
+                return(-1);
+            }
+            in.readLine();  //  can id, wheel diameter, overdrive
+            n=Integer.parseInt(in.readLine().trim());
+            if((n<1)||(n>MAX_POINTS))  {
+                System.out.printf("%s: bad point count %d\n",file.getPath(),n);
+                return(-1);
+            }
+
+            v=new double[n];
+            out=new double[n];
+            msec=new double[n];
+            error=new double[n];
+            for(i=0;i<n;i++)  {
+                fields=in.readLine().trim().split("\\s+");
+                v[i]=Double.parseDouble(fields[0]);
+                out[i]=Double.parseDouble(fields[1]);
+                msec[i]=Double.parseDouble(fields[2]);
+                error[i]=Double.parseDouble(fields[3]);
+                if((isPoint(v[i],out[i],msec[i],error[i])==false)||
+                   ((i>0)&&(v[i]<=v[i-1])))  {
+                    System.out.printf("%s: bad point %d\n",file.getPath(),i);
+                    return(-1);
+                }
+            }
+        }  catch (IOException|RuntimeException e)  {
+            System.out.printf("Characterization read failed: %s\n",e.getMessage());
+            return(-1);
+        }
+
+        velocity=v;
+        output=out;
+        time_msec=msec;
+        residual=error;
+        count=n;
+        return(0);
+    }
+}
@@ -0,0 +1,231 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  ShooterGroup.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Runs any number of TalFX_Shooter motors as one
+//            shooter.  Every update() reads all encoders, then
+//            computes all corrections, then writes all outputs,
+//            so the motors are corrected in phase rather than one
+//            after the other.
+//
+//  Remarks:  Each member keeps its own invert state, target and
+//            control mode, the group only owns the timing.  The
+//            group is stable once every member has passed its
+//            stability test, and no member output is changed
+//            after that.
+//
+//            Like TalFX_Shooter.updateVelocity(), update() never
+//            blocks.  Call it every 20msec from a periodic function
+//            or a thread loop.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+class ShooterGroup {
+
+    private final TalFX_Shooter members[];
+
+    private long settle_time=50000000;    //  nanoseconds
+    private long write_time=0;
+    private long start_time=0;
+    private double elapsed_time=0.0;      //  msec
+    private int init=1;
+    private Boolean stable=false;
+
+    //  Predictive readiness for every member, see ShotReadiness
+    private Boolean predictive=false;
+
+    ShooterGroup(TalFX_Shooter... shooters)
+    {
+        members=shooters;
+    }
+
+    int size()
+    {
+        return(members.length);
+    }
+
+    TalFX_Shooter get(int index)
+    {
+        return(members[index]);
+    }
+
+    int setSettleTime(double msec)
+    {
+        settle_time=(long)(msec*1e6);
+        return(0);
+    }
+
+    //  Time to stability of the group in msec
+    double getElapsedTime()
+    {
+        return(elapsed_time);
+    }
+
+    int setPredictive(Boolean state)
+    {
+        int i;
+
+        predictive=state;
+        for(i=0;i<members.length;i++)  {
+            members[i].setPredictive(state);
+        }
+        return(0);
+    }
+
+    Boolean isStable()
+    {
+        return(stable);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int setTargetVelocity(double velocity)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Sets the belt velocity and encoder target of every
+    //            member and restarts the group.
+    //
+    //  Arguments:Velocity in feet per second
+    //
+    //  Returns:  zero
+    //
+    //  Remarks:  Each member computes its own target_speed from its
+    //            own wheel diameter.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int setTargetVelocity(double velocity)
+    {
+        int i;
+
+        for(i=0;i<members.length;i++)  {
+            members[i].setTargetVelocity(velocity);
+            members[i].target_speed=members[i].computeMotorSpeed(velocity);
+        }
+        reInit();
+        return(0);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int update()
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  One synchronized step of every member.
+    //
+    //  Arguments:void
+    //
+    //  Returns:  Zero while converging, '1' once every member is
+    //            stable.
+    //
+    //  Remarks:  The first call starts all members.  After that a
+    //            step happens once settle_time has passed since the
+    //            last group write.  Calls in between return at once.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    int update()
+    {
+        long now;
+        Boolean all_stable=true;
+        int i;
+
+        now=System.nanoTime();
+
+        if(init==1)  {
+            for(i=0;i<members.length;i++)  {
+                members[i].startVelocity(now);
+            }
+            start_time=now;
+            write_time=now;
+            stable=false;
+            init=0;
+            return(0);
+        }
+
+        if(stable==true)  {
+            return(1);
+        }
+
+        //  Predictive members sample every call, the group is ready
+        //  when all of them are.
+        if(predictive==true)  {
+            for(i=0;i<members.length;i++)  {
+                members[i].sampleVelocity(now);
+            }
+            for(i=0;i<members.length;i++)  {
+                if(members[i].isReady()==false)  {
+                    all_stable=false;
+                }
+            }
+            if(all_stable==true)  {
+                return(markStable(now));
+            }
+            all_stable=true;
+        }
+
+        if((now-write_time)<settle_time)  {
+            return(0);
+        }
+
+        //  Read all, compute all, write all
+        if(predictive==false)  {
+            for(i=0;i<members.length;i++)  {
+                members[i].readVelocity();
+            }
+        }
+        for(i=0;i<members.length;i++)  {
+            if(members[i].computeVelocity()==false)  {
+                all_stable=false;
+            }
+        }
+
+        if(all_stable==true)  {
+            return(markStable(now));
+        }
+
+        for(i=0;i<members.length;i++)  {
+            members[i].writeVelocity();
+        }
+        write_time=now;
+        return(0);
+    }
+
+    private int markStable(long now)
+    {
+        int i;
+
+        for(i=0;i<members.length;i++)  {
+            members[i].markStable(now);
+        }
+        elapsed_time=(double)((now-start_time)/1e6);
+        stable=true;
+        System.out.printf("Group time to stability = %.3f msec\n",elapsed_time);
+        return(1);
+    }
+
+    int reInit()
+    {
+        int i;
+
+        for(i=0;i<members.length;i++)  {
+            members[i].reInit();
+            members[i].resetCount();
+        }
+        init=1;
+        stable=false;
+        return(0);
+    }
+
+    int stop()
+    {
+        int i;
+
+        for(i=0;i<members.length;i++)  {
+            members[i].stop();
+        }
+        init=1;
+        stable=false;
+        return(0);
+    }
+}
@@ -0,0 +1,155 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  ShotReadiness.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Predicts whether a shooter wheel will hold its target
+//            speed while a ball passes through.  A straight line
+//            (velocity and acceleration) is fitted by least squares
+//            to the last few encoder samples, and the wheel is
+//            ready when the fitted speed is inside tolerance now
+//            and is still predicted to be inside tolerance one ball
+//            transit time from now.
+//
+//  Remarks:  This replaces waiting for three samples inside the
+//            deadband 50msec apart.  Samples can be taken every
+//            loop (20msec), and a wheel that is settling onto the
+//            target is accepted as soon as the trend says it will
+//            stay there.
+//
+//            The Talon velocity reading is itself averaged over a
+//            measurement window, so the fitted acceleration lags
+//            the true one.  The window here should not be much
+//            shorter than that.
+//
+//            Fixed size ring buffer, no allocation after
+//            construction.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+class ShotReadiness {
+
+    //  Fewest samples a fit is trusted with
+    static final int MIN_SAMPLES = 4;
+
+    private final double time[];     //  seconds
+    private final double speed[];    //  counts/100msec
+    private int next;
+    private int count;
+
+    //  Results of the last fit
+    private double fit_speed;        //  at the newest sample
+    private double fit_accel;        //  counts/100msec per second
+
+    ShotReadiness(int window)
+    {
+        time=new double[window];
+        speed=new double[window];
+        reset();
+    }
+
+    void reset()
+    {
+        next=0;
+        count=0;
+        fit_speed=0.0;
+        fit_accel=0.0;
+    }
+
+    void add(double t,double s)
+    {
+        time[next]=t;
+        speed[next]=s;
+        next=(next+1)%time.length;
+        if(count<time.length)  {
+            count++;
+        }
+    }
+
+    int getCount()  { return(count); }
+    double getSpeed()  { return(fit_speed); }
+    double getAcceleration()  { return(fit_accel); }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  Boolean fit()
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Least squares line through the buffered samples.
+    //
+    //  Arguments:void
+    //
+    //  Returns:  true if there were enough samples, the results are
+    //            then available from getSpeed()/getAcceleration().
+    //
+    //  Remarks:  Times are taken relative to the newest sample so
+    //            the intercept is the current speed.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    Boolean fit()
+    {
+        double t_newest;
+        double t;
+        double sum_t=0.0;
+        double sum_s=0.0;
+        double sum_tt=0.0;
+        double sum_ts=0.0;
+        double denom;
+        int i;
+        int k;
+
+        if(count<MIN_SAMPLES)  {
+            return(false);
+        }
+
+        t_newest=time[(next-1+time.length)%time.length];
+        for(i=0;i<count;i++)  {
+            k=(next-1-i+time.length)%time.length;
+            t=time[k]-t_newest;
+            sum_t+=t;
+            sum_s+=speed[k];
+            sum_tt+=t*t;
+            sum_ts+=t*speed[k];
+        }
+
+        denom=count*sum_tt-sum_t*sum_t;
+        if(denom<=0.0)  {
+            return(false);
+        }
+        fit_accel=(count*sum_ts-sum_t*sum_s)/denom;
+        fit_speed=(sum_s-fit_accel*sum_t)/count;
+        return(true);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  Boolean isReady( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Fits the samples and tests the prediction.
+    //
+    //  Arguments:Target speed and tolerance (counts/100msec), and
+    //            the ball transit time in seconds.
+    //
+    //  Returns:  true if the fitted speed is within tolerance now
+    //            and at the end of the transit time.
+    //
+    //  Remarks:  The prediction is a straight line, so inside at
+    //            both ends means inside for the whole transit.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    Boolean isReady(double target,double tolerance,double transit_time)
+    {
+        if(fit()==false)  {
+            return(false);
+        }
+        if(Math.abs(fit_speed-target)>=tolerance)  {
+            return(false);
+        }
+        if(Math.abs(fit_speed+fit_accel*transit_time-target)>=tolerance)  {
+            return(false);
+        }
+        return(true);
+    }
+}
@@ -45,6 +45,7 @@
 
 package frc.robot;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.can.TalonFX;
 import com.ctre.phoenix.motorcontrol.TalonFXControlMode;
 import com.ctre.phoenix.motorcontrol.TalonFXFeedbackDevice;
@@ -91,32 +92,80 @@ public class TalFX_Shooter {
     //  subject to change.  A linear interpolation will be used to 
     //  determine the initial motor command.
     //  
-    double tbl_lookup;
+    double tbl_lookup[] = new double[16];
+    static final double TBL_STEP = 5.0;    //  ft/sec per table element
+
+    //  When true, setVelocity_xxx() seeds motor_output from tbl_lookup
+    //  at the target velocity in the init block instead of starting
+    //  from starting_output.  The step correction then only has to
+    //  remove the table error.
+    private Boolean feedforward=false;
+
+    //  updateVelocity() state.  settle_time is how long the motor is
+    //  given to respond to a new output before the encoder is read,
+    //  the same 50 msec the setVelocity_xxx() functions spin for.
+    private long settle_time=50000000;    //  nanoseconds
+    private long write_time=0;            //  time of the last output write
+    private Boolean stable=false;
+    private double measured_speed=0.0;   //  last encoder read, counts/100msec
+    private double residual_error=0.0;   //  target-measured at the last read
+    private int can_id;
+
+    //  Online learner for the steady state output, see
+    //  AdaptiveFeedforward.  When on, it replaces tbl_lookup in
+    //  lookupOutput() and is taught every converged output.
+    private Boolean adaptive=false;
+    private AdaptiveFeedforward learner=null;
+
+    //  Battery voltage compensation.  With compensation on,
+    //  motor_output is a fraction of NOMINAL_VOLTAGE rather than of
+    //  whatever the battery is at, so the same output gives the same
+    //  wheel speed as the battery sags.
+    //
+    //  VCOMP_TALON:  the Talon scales every command
+    //                (configVoltageCompSaturation), this also covers
+    //                its velocity loop.
+    //  VCOMP_JAVA:   PercentOutput commands are scaled here by
+    //                NOMINAL_VOLTAGE/bus voltage before they are sent.
+    static final int VCOMP_OFF = 0;
+    static final int VCOMP_TALON = 1;
+    static final int VCOMP_JAVA = 2;
+    static final double NOMINAL_VOLTAGE = 11.0;
+    private int vcomp_mode=VCOMP_OFF;
+
+    //  Predictive readiness, see ShotReadiness.  When on, the
+    //  encoder is sampled on every updateVelocity() call and the
+    //  motor is declared stable as soon as the fitted trend stays
+    //  inside the deadband for transit_time, instead of after three
+    //  settled samples.
+    private Boolean predictive=false;
+    private ShotReadiness readiness=new ShotReadiness(8);
+    private double transit_time=0.1;      //  seconds the ball is on the wheel
+
+    //  Where updateVelocity() closes the velocity loop.  CONTROL_JAVA
+    //  steps a PercentOutput command from this class every call.
+    //  CONTROL_TALON pushes slot 0 gains to the Talon and commands
+    //  TalonFXControlMode.Velocity, the Talon then runs the loop at
+    //  1 kHz on its own sensor.  CONTROL_JAVA is the fallback if the
+    //  gains cannot be configured.
+    static final int CONTROL_JAVA = 0;
+    static final int CONTROL_TALON = 1;
+    private int control_mode=CONTROL_JAVA;
+
+    //  Talon slot 0 velocity gains.  Output units are 1023 = full
+    //  output, error units counts/100msec.  kF is not fixed, it is
+    //  derived from tbl_lookup at each target velocity.
+    private double kP=0.10;
+    private double kI=0.0;
+    private double kD=0.0;
+    private double kF=0.0;
   
     //  Base constructor
     TalFX_Shooter(int can_addr)  {
 
-      //  Table generated via AnalysisThread
-      //  Lists motor percentages every 5ft/sec
-      //  with specified wheel and overdrive
-      //  parameters.
-      double tbl_lookup[] = new double[16];
-        tbl_lookup[0]=0.0;
-        tbl_lookup[1]=0.07;   //  5ft/sec
-        tbl_lookup[2]=0.10;   //  10ft/sec
-        tbl_lookup[3]=0.12;   //  15ft/sec
-        tbl_lookup[4]=0.15;
-        tbl_lookup[5]=0.18;
-        tbl_lookup[6]=0.21;
-        tbl_lookup[7]=0.24;
-        tbl_lookup[8]=0.26;
-        tbl_lookup[9]=0.29;
-        tbl_lookup[10]=0.32;
-        tbl_lookup[11]=0.35;
-        tbl_lookup[12]=0.38;
-        tbl_lookup[13]=0.41;
-        tbl_lookup[14]=0.44;
-        tbl_lookup[15]=0.47;
+        can_id=can_addr;
+        loadSpeedTable();
+        loadCharacterization();
             
         /* Hardware */
         _talon = new TalonFX(can_addr);
@@ -154,6 +203,10 @@ public class TalFX_Shooter {
     //  inverted.
     TalFX_Shooter(int can_addr,Boolean invert)  {
           
+        can_id=can_addr;
+        loadSpeedTable();
+        loadCharacterization();
+
         /* Hardware */
         _talon = new TalonFX(can_addr);
         delay=new Delay();
@@ -253,6 +306,357 @@ public class TalFX_Shooter {
       return(0);
     }
 
+    int setFeedforward(Boolean state)
+    {
+      feedforward=state;
+      return(0);
+    }
+
+    Boolean getFeedforward()
+    {
+      return(feedforward);
+    }
+
+    int setSettleTime(double msec)
+    {
+      settle_time=(long)(msec*1e6);
+      return(0);
+    }
+
+    double getSettleTime()
+    {
+      return(settle_time/1e6);
+    }
+
+    int setControlMode(int mode)
+    {
+      control_mode=mode;
+      if(control_mode==CONTROL_TALON)  {
+        if(configVelocityGains()!=0)  {
+          System.out.printf("Velocity gains not accepted, using Java loop\n");
+          control_mode=CONTROL_JAVA;
+          return(-1);
+        }
+      }
+      return(0);
+    }
+
+    int getControlMode()
+    {
+      return(control_mode);
+    }
+
+    int setVelocityGains(double p,double i,double d)
+    {
+      kP=p;
+      kI=i;
+      kD=d;
+      if(control_mode==CONTROL_TALON)  {
+        return(configVelocityGains());
+      }
+      return(0);
+    }
+
+    double getkF()
+    {
+      return(kF);
+    }
+
+    //  Fractional output at stability, or the last Java loop command
+    double getMotorOutput()
+    {
+      return(motor_output);
+    }
+
+    //  The learner starts from the current tbl_lookup, so turn this
+    //  on after any characterization has been loaded.
+    int setAdaptive(Boolean state)
+    {
+      adaptive=state;
+      if((adaptive==true)&&(learner==null))  {
+        learner=new AdaptiveFeedforward(tbl_lookup,TBL_STEP);
+      }
+      return(0);
+    }
+
+    Boolean getAdaptive()
+    {
+      return(adaptive);
+    }
+
+    AdaptiveFeedforward getLearner()
+    {
+      return(learner);
+    }
+
+    int setVoltageCompensation(int mode)
+    {
+      vcomp_mode=mode;
+      if(vcomp_mode==VCOMP_TALON)  {
+        if(_talon.configVoltageCompSaturation(NOMINAL_VOLTAGE,50)!=ErrorCode.OK)  {
+          System.out.printf("Voltage compensation not accepted, scaling in Java\n");
+          vcomp_mode=VCOMP_JAVA;
+        }  else  {
+          _talon.enableVoltageCompensation(true);
+          return(0);
+        }
+      }
+      _talon.enableVoltageCompensation(false);
+      return((vcomp_mode==mode)?0:-1);
+    }
+
+    int getVoltageCompensation()
+    {
+      return(vcomp_mode);
+    }
+
+    int setPredictive(Boolean state)
+    {
+      predictive=state;
+      return(0);
+    }
+
+    Boolean getPredictive()
+    {
+      return(predictive);
+    }
+
+    int setTransitTime(double seconds)
+    {
+      transit_time=seconds;
+      return(0);
+    }
+
+    int getCanId()
+    {
+      return(can_id);
+    }
+
+    double getOverdrive()
+    {
+      return(overdrive);
+    }
+
+    //  target_speed-measured speed at the last encoder read,
+    //  counts/100msec
+    double getResidualError()
+    {
+      return(residual_error);
+    }
+
+    //  Time to stability of the last updateVelocity() run in msec
+    double getElapsedTime()
+    {
+      return(elapsed_time);
+    }
+
+    //  Table generated via AnalysisThread
+    //  Lists motor percentages every 5ft/sec
+    //  with specified wheel and overdrive
+    //  parameters.
+    private void loadSpeedTable()
+    {
+        tbl_lookup[0]=0.0;
+        tbl_lookup[1]=0.07;   //  5ft/sec
+        tbl_lookup[2]=0.10;   //  10ft/sec
+        tbl_lookup[3]=0.12;   //  15ft/sec
+        tbl_lookup[4]=0.15;
+        tbl_lookup[5]=0.18;
+        tbl_lookup[6]=0.21;
+        tbl_lookup[7]=0.24;
+        tbl_lookup[8]=0.26;
+        tbl_lookup[9]=0.29;
+        tbl_lookup[10]=0.32;
+        tbl_lookup[11]=0.35;
+        tbl_lookup[12]=0.38;
+        tbl_lookup[13]=0.41;
+        tbl_lookup[14]=0.44;
+        tbl_lookup[15]=0.47;
+    }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Function:  void writeOutput(double output)
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Sends a PercentOutput command, scaled for the bus
+  //            voltage in VCOMP_JAVA mode.
+  //
+  //  Arguments:Fractional output (-1,1), of NOMINAL_VOLTAGE when
+  //            compensation is on.
+  //
+  //  Returns:  void
+  //
+  //  Remarks:  The scaled command is limited to full output.  Below
+  //            NOMINAL_VOLTAGE the largest outputs cannot be
+  //            reached, the same as with the Talon's compensation.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  void writeOutput(double output)
+  {
+    double bus_voltage;
+
+    if(vcomp_mode==VCOMP_JAVA)  {
+      bus_voltage=_talon.getBusVoltage();
+      if(bus_voltage>1.0)  {
+        output*=NOMINAL_VOLTAGE/bus_voltage;
+      }
+      if(output>1.0)  {
+        output=1.0;
+      }  else if(output<-1.0)  {
+        output=-1.0;
+      }
+    }
+    _talon.set(TalonFXControlMode.PercentOutput, output);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Function:  int loadCharacterization()
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Replaces the built in tbl_lookup values with this
+  //            motor's measured characterization, if AnalysisThread
+  //            has written one.
+  //
+  //  Arguments:void
+  //
+  //  Returns:  Zero if the table was replaced, -1 if there is no
+  //            usable file and the built in values remain.
+  //
+  //  Remarks:  The measured points are interpolated onto the 5ft/sec
+  //            table grid.  Grid entries outside the measured
+  //            velocity range keep their built in values.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  int loadCharacterization()
+  {
+    ShooterCharacterization measured = new ShooterCharacterization(0);
+    double v_max;
+    int i;
+
+    if(measured.load(ShooterCharacterization.fileFor(can_id))!=0)  {
+      return(-1);
+    }
+    if(measured.getCount()<2)  {
+      return(-1);
+    }
+
+    v_max=measured.getVelocity(measured.getCount()-1);
+    for(i=0;i<tbl_lookup.length;i++)  {
+      if(i*TBL_STEP<=v_max)  {
+        tbl_lookup[i]=measured.outputAt(i*TBL_STEP);
+      }
+    }
+    System.out.printf("Shooter %d:  speed table loaded from characterization (%d points)\n",
+      can_id,measured.getCount());
+    return(0);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Function:  int configVelocityGains()
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Pushes kP, kI and kD to Talon slot 0 and selects the
+  //            slot for the primary closed loop.
+  //
+  //  Arguments:void
+  //
+  //  Returns:  Zero on success, -1 if any setting was rejected.
+  //
+  //  Remarks:  Blocking configuration calls (50 msec timeout), call
+  //            from init functions, not from the periodic loop.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  int configVelocityGains()
+  {
+    int status=0;
+
+    if(_talon.config_kP(0,kP,50)!=ErrorCode.OK)  {
+      status=-1;
+    }
+    if(_talon.config_kI(0,kI,50)!=ErrorCode.OK)  {
+      status=-1;
+    }
+    if(_talon.config_kD(0,kD,50)!=ErrorCode.OK)  {
+      status=-1;
+    }
+    _talon.selectProfileSlot(0,0);
+    return(status);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Function:  double computeKF(double velocity)
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Talon feedforward gain that produces the tbl_lookup
+  //            output at the given belt velocity.
+  //
+  //  Arguments:Accepts the velocity in feet per second as double
+  //
+  //  Returns:  kF in Talon units, 1023*output/(counts/100msec)
+  //
+  //  Remarks:  The table is not quite linear, so kF is recomputed
+  //            for every target rather than configured once.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  double computeKF(double velocity)
+  {
+    double speed;
+
+    speed=computeMotorSpeed(Math.abs(velocity));
+    if(speed<1.0)  {
+      return(0.0);
+    }
+    return(1023.0*lookupOutput(velocity)/speed);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Function:  double lookupOutput(double velocity)
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Linear interpolation of tbl_lookup, the expected
+  //            fractional motor output for a belt velocity.
+  //
+  //  Arguments:Accepts the velocity in feet per second as double
+  //
+  //  Returns:  Fractional motor output (0,1) as double, always
+  //            positive.  The caller applies the invert state.
+  //
+  //  Remarks:  Velocities past the last table entry extrapolate
+  //            along the last segment, limited to full output.
+  //
+  //            With adaptive on, the learned table is used instead.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  double lookupOutput(double velocity)
+  {
+    double position;
+    double frac;
+    double output;
+    int i;
+
+    if(adaptive==true)  {
+      return(learner.predict(velocity));
+    }
+
+    position=Math.abs(velocity)/TBL_STEP;
+    i=(int)position;
+    if(i>tbl_lookup.length-2)  {
+      i=tbl_lookup.length-2;
+    }
+    frac=position-i;
+
+    output=tbl_lookup[i]+frac*(tbl_lookup[i+1]-tbl_lookup[i]);
+    if(output>1.0)  {
+      output=1.0;
+    }
+    return(output);
+  }
+
   ///////////////////////////////////////////////////////////////////
   //  Function:  double computeMotorSpeed(double velocity)
   //////////////////////////////////////////////////////////////////
@@ -274,23 +678,9 @@ public class TalFX_Shooter {
   public double computeMotorSpeed(double velocity)
   {
     int debug=0;
-    double motor_rps;  //  motor revolutions per second
-    double diameter;
     double counts_msec;
 
-    diameter=wheel_diameter/12.0;  //  diameter in feet
-
-    //  motor speed in revolutions per second
-    //  velocity expressed in feet/second, diameter in feet
-    motor_rps=velocity/(Math.PI*diameter);
-
-    //  Here we account for the overdrive of 1.46:1
-    //  For a given belt velocity, this will reduce the
-    //  rps of the motor required.
-    motor_rps/=overdrive;
-
-    //  next, counts per 100 msec, 10 such intervals per second.
-    counts_msec=2048.0*motor_rps/10.0;
+    counts_msec=computeMotorSpeed(velocity,wheel_diameter,overdrive);
 
     if(debug==1)  {
         System.out.printf("counts_msec = %.1f\n",counts_msec);
@@ -325,9 +715,38 @@ public class TalFX_Shooter {
   public double computeMotorSpeed(double velocity,double diameter)
   {
     int debug = 0;
-    double motor_rps;  //  motor revolutions per second
     double counts_msec;
 
+    counts_msec=computeMotorSpeed(velocity,diameter,overdrive);
+
+    if(debug==1) {
+        System.out.printf("counts_msec = %.1f\n",counts_msec);
+    }
+
+    return(counts_msec);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Function:  static double computeMotorSpeed(double velocity,
+  //                               double diameter,double overdrive)
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Same computation as the member versions without
+  //            needing a TalFX_Shooter (and so a TalonFX) object.
+  //
+  //  Arguments:Velocity in feet per second, wheel diameter in
+  //            inches and the motor to wheel overdrive ratio.
+  //
+  //  Returns:  Motor speed in counts per 100msec as double
+  //
+  //  Remarks:  Used by the member versions and by the benchmarks.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  static double computeMotorSpeed(double velocity,double diameter,double overdrive)
+  {
+    double motor_rps;  //  motor revolutions per second
+
     //  convert wheel diameter to feet.
     diameter=diameter/12.0;  //  diameter in feet
 
@@ -341,13 +760,7 @@ public class TalFX_Shooter {
     motor_rps/=overdrive;
 
     //  next, coumpute counts per 100 msec.
-    counts_msec=2048.0*motor_rps/10.0;
-
-    if(debug==1) {
-        System.out.printf("counts_msec = %.1f\n",counts_msec);
-    }
-
-    return(counts_msec);
+    return(2048.0*motor_rps/10.0);
   }
 
   ///////////////////////////////////////////////////////////////////
@@ -389,6 +802,9 @@ public class TalFX_Shooter {
     ////////////////////////////////////////////////////////////////////
     if(init==1)  {
         start_time=System.nanoTime();
+        if(feedforward==true)  {
+          motor_output=lookupOutput(target_velocity);
+        }
         if(invert_state==true)  {
           motor_output*=-1.0;
           target_speed*=-1.0;
@@ -399,15 +815,15 @@ public class TalFX_Shooter {
 
     //   First time through:
     //   Set Talon  output percentage at the starting point
-    //   Future:  This could be read from a table to more quickly hit
-    //   the target.  Table would relate velocity to starting
-    //   point (percentage) for motor drive.
+    //   With feedforward on, the starting point is read from
+    //   tbl_lookup at the target velocity (see the init block),
+    //   otherwise it is starting_output.
     
 
     //  First time through, this starts the motor.  Subsequent
     //  calls within teleop will alter the motor_output until
     //  measured speed satisfies deadband limits.
-    _talon.set(TalonFXControlMode.PercentOutput, motor_output);
+    writeOutput(motor_output);
     
 
     //  Need this delay to allow motor to start before attempting
@@ -462,19 +878,7 @@ public class TalFX_Shooter {
     //  The goal is to get to our speed as quickly
     //  as possible with a minimum of "overshoot"
     //  You will need to play with these parameters
-    if(error>2000)  {
-      incr=0.05;
-    } else if(error>1000.0)  {
-      incr=0.02;
-    } else if(error>500.0)  {
-      incr=0.01;
-    } else if(error>100.0)  {
-      incr=0.002;
-    }  else if(error>50.0) {
-      incr=0.001;
-    }  else  {  //  do nothing
-      incr=0.0;
-    }
+    incr=stepIncrement(error);
 
     //  If we are within +/- deadband,
     //  do nothing.  Note that if we are operating
@@ -562,7 +966,15 @@ public class TalFX_Shooter {
     ////////////////////////////////////////////////////////////////////
     if(init==1)  {
         start_time=System.nanoTime();
-        if(once==true)  {
+        if(feedforward==true)  {
+            //  Re-seeded for every target, so the invert is
+            //  applied every time rather than once.
+            motor_output=lookupOutput(target_velocity);
+            if(invert_state==true)  {
+              motor_output*=-1.0;
+            }
+            once=false;
+        }  else if(once==true)  {
             if(invert_state==true)  {
               motor_output*=-1.0;
             }
@@ -580,9 +992,9 @@ public class TalFX_Shooter {
 
     //   First time through:
     //   Set Talon  output percentage at the starting point
-    //   Future:  This could be read from a table to more quickly hit
-    //   the target.  Table would relate velocity to starting
-    //   point (percentage) for motor drive.
+    //   With feedforward on, the starting point is read from
+    //   tbl_lookup at the target velocity (see the init block),
+    //   otherwise it is starting_output.
 
     //   This function works well for a single power setting like in
     //   ShootThread or in a multiple power application such as
@@ -591,7 +1003,7 @@ public class TalFX_Shooter {
     //  First time through, this starts the motor.  Subsequent
     //  calls within autonomous will alter the motor_output until
     //  measured speed satisfies deadband limits.
-    _talon.set(TalonFXControlMode.PercentOutput, motor_output);
+    writeOutput(motor_output);
    
     //  Need this delay to allow motor to start before attempting
     //  to read the encoder velocity.  This is important, too short
@@ -652,19 +1064,7 @@ public class TalFX_Shooter {
     //  The goal is to get to our speed as quickly
     //  as possible with a minimum of "overshoot"
     //  You will need to play with these parameters
-    if(error>2000)  {
-      incr=0.05;
-    } else if(error>1000.0)  {
-      incr=0.02;
-    } else if(error>500.0)  {
-      incr=0.01;
-    } else if(error>100.0)  {
-      incr=0.002;
-    }  else if(error>50.0) {
-      incr=0.001;
-    }  else  {  //  do nothing
-      incr=0.0;
-    }
+    incr=stepIncrement(error);
 
     //  If we are within +/- deadband,
     //  do nothing.  Note that if we are operating
@@ -763,11 +1163,15 @@ public class TalFX_Shooter {
     if(init==1)  {
         start_time=System.nanoTime();
         
+        if(feedforward==true)  {
+          motor_output=lookupOutput(target_velocity);
+        }
         if(invert_state==true)  {
           motor_output*=-1.0;
           target_speed*=-1.0;
         }
       
+        stable=false;
         count=0;
         init=0;
     }
@@ -778,9 +1182,9 @@ public class TalFX_Shooter {
 
     //   First time through:
     //   Set Talon  output percentage at the starting point
-    //   Future:  This could be read from a table to more quickly hit
-    //   the target.  Table would relate velocity to starting
-    //   point (percentage) for motor drive.
+    //   With feedforward on, the starting point is read from
+    //   tbl_lookup at the target velocity (see the init block),
+    //   otherwise it is starting_output.
 
     //   This function works well for a single power setting like in
     //   ShootThread or in Teleop.
@@ -788,7 +1192,7 @@ public class TalFX_Shooter {
     //  First time through, this starts the motor.  Subsequent
     //  calls within teleop will alter the motor_output until
     //  measured speed satisfies deadband limits.
-    _talon.set(TalonFXControlMode.PercentOutput, motor_output);
+    writeOutput(motor_output);
     if(debug==1)  {
       System.out.printf("Motor Output = %.3f\n",motor_output);
 
@@ -839,6 +1243,13 @@ public class TalFX_Shooter {
         System.out.printf("motor output = %.3f\n",motor_output);
       }
       System.out.printf("Velocity = %.3f ft/sec  motor cmd = %.3f\n",Robot.analysis.v,motor_output);
+
+      //  Teach the learner once per spin-up, this block is entered
+      //  on every call after stability.
+      if((adaptive==true)&&(stable==false))  {
+        learner.learn(target_velocity,motor_output);
+      }
+      stable=true;
       return(1);
   
     }  
@@ -850,19 +1261,7 @@ public class TalFX_Shooter {
     //  The goal is to get to our speed as quickly
     //  as possible with a minimum of "overshoot"
     //  You will need to play with these parameters
-    if(error>2000)  {
-      incr=0.05;
-    } else if(error>1000.0)  {
-      incr=0.02;
-    } else if(error>500.0)  {
-      incr=0.01;
-    } else if(error>100.0)  {
-      incr=0.002;
-    }  else if(error>50.0) {
-      incr=0.001;
-    }  else  {  //  do nothing
-      incr=0.0;
-    }
+    incr=stepIncrement(error);
 
     //  If we are within +/- deadband,
     //  do nothing.  Note that if we are operating
@@ -900,6 +1299,250 @@ public class TalFX_Shooter {
 
   
 
+  ///////////////////////////////////////////////////////////////////
+  // Function: int updateVelocity()
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  Non-blocking version of setVelocity_teleOp().  Does
+  //            at most one read-compute-write step per call and
+  //            returns immediately.
+  //
+  //  Arguments:void
+  //
+  //  Returns:  Zero while converging, '1' once stability at
+  //            target_speed is established.  Once stability is
+  //            established the motor runs at the last modified
+  //            fractional input (-1,1)
+  //
+  //  Remarks:  Intended to be called every 20msec from a periodic
+  //            function.
+  //
+  //            In CONTROL_TALON mode the target is handed to the
+  //            Talon's velocity loop on the first call and later
+  //            calls only watch for stability.
+  //
+  //            In CONTROL_JAVA mode the loop is closed here.
+  //            Instead of spinning 50msec after each output change,
+  //            the time of the write is recorded and the encoder is
+  //            not read until settle_time has passed.  Calls in
+  //            between only check the clock, so several shooters
+  //            (and the drive) can share the main loop.
+  //
+  //            target_speed is not modified, the invert is applied
+  //            to a local copy, so reInit() can be called any
+  //            number of times.
+  //
+  //            Call stop() or reInit()/resetCount() to start over.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  public int updateVelocity()
+  {
+    long now;
+
+    now=System.nanoTime();
+
+    if(init==1)  {
+        startVelocity(now);
+        write_time=now;
+        return(0);
+    }
+
+    if(stable==true)  {
+        return(1);
+    }
+
+    if(predictive==true)  {
+        sampleVelocity(now);
+        if(isReady()==true)  {
+            markStable(now);
+            return(1);
+        }
+    }
+
+    //  Motor has not had time to respond to the last write
+    if((now-write_time)<settle_time)  {
+        return(0);
+    }
+
+    if(predictive==false)  {
+        readVelocity();
+    }
+    if(computeVelocity()==true)  {
+        markStable(now);
+        return(1);
+    }
+    writeVelocity();
+    write_time=now;
+
+    return(0);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+  //  Functions:  startVelocity(), readVelocity(), computeVelocity(),
+  //              writeVelocity(), markStable()
+  //////////////////////////////////////////////////////////////////
+  //
+  //  Purpose:  The phases of one updateVelocity() step, separated
+  //            so ShooterGroup can read every motor, then compute
+  //            every correction, then write every output.
+  //
+  //            startVelocity()   seeds and writes the first command
+  //            readVelocity()    reads the encoder into measured_speed
+  //            sampleVelocity()  readVelocity() plus a ShotReadiness sample
+  //            isReady()         predictive readiness test
+  //            computeVelocity() updates the stability count and,
+  //                              in CONTROL_JAVA mode, motor_output.
+  //                              Returns true once stable.
+  //            writeVelocity()   writes motor_output (CONTROL_JAVA)
+  //            markStable()      records the time to stability
+  //
+  //  Remarks:  Timing (settle_time, write_time) belongs to the
+  //            caller, updateVelocity() or the group.
+  //
+  ///////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////
+  void startVelocity(long now)
+  {
+    double target;
+
+    target=(invert_state==true)?-target_speed:target_speed;
+    start_time=now;
+    stable=false;
+    count=0;
+    init=0;
+    readiness.reset();
+
+    //  Talon loop:  feedforward for this target, then command the
+    //  target speed.  kF is sent without waiting for the
+    //  confirmation (0 timeout) to keep this call short.
+    if(control_mode==CONTROL_TALON)  {
+        kF=computeKF(target_velocity);
+        _talon.config_kF(0,kF,0);
+        _talon.set(TalonFXControlMode.Velocity, target);
+        return;
+    }
+
+    if(feedforward==true)  {
+      motor_output=lookupOutput(target_velocity);
+    }  else  {
+      motor_output=Math.abs(motor_output);
+    }
+    if(invert_state==true)  {
+      motor_output*=-1.0;
+    }
+    writeOutput(motor_output);
+  }
+
+  void readVelocity()
+  {
+    //  Read the selected sensor velocity in counts per 100msec
+    //  If running in inverted state, speed will be negative
+    measured_speed=_talon.getSelectedSensorVelocity(0);
+  }
+
+  void sampleVelocity(long now)
+  {
+    readVelocity();
+    readiness.add(now*1e-9,measured_speed);
+  }
+
+  Boolean isReady()
+  {
+    double target;
+
+    target=(invert_state==true)?-target_speed:target_speed;
+    if(readiness.isReady(target,deadband,transit_time)==true)  {
+      residual_error=(invert_state==true)?-(target-measured_speed):(target-measured_speed);
+      return(true);
+    }
+    return(false);
+  }
+
+  Boolean computeVelocity()
+  {
+    int debug=0;
+    double target;
+    double raw_error;
+    double error;
+    double incr;
+
+    target=(invert_state==true)?-target_speed:target_speed;
+    raw_error=target-measured_speed;
+    error=Math.abs(raw_error);
+    residual_error=(invert_state==true)?-raw_error:raw_error;
+
+    if(debug==1)  {
+      System.out.printf("raw error = %.1f error = %.1f\n",raw_error,error);
+    }
+
+    if(error<deadband)  {
+        if(count<3) {
+          count++;
+        }
+    }
+
+    if(count>=3)  {  //  consider output stable, do not alter motor_output
+      return(true);
+    }
+
+    //  The Talon is closing the loop, nothing to correct
+    if(control_mode==CONTROL_TALON)  {
+      return(false);
+    }
+
+    incr=stepIncrement(error);
+    if(measured_speed<(target-deadband))  {
+      motor_output+=incr;
+    }  else if(measured_speed>(target+deadband))  {
+      motor_output-=incr;
+    }
+    return(false);
+  }
+
+  void writeVelocity()
+  {
+    if(control_mode==CONTROL_JAVA)  {
+      writeOutput(motor_output);
+    }
+  }
+
+  void markStable(long now)
+  {
+    end_time=now;
+    elapsed_time=(double)((end_time-start_time)/1e6);  //  msec
+    stable=true;
+    if(control_mode==CONTROL_TALON)  {
+      if(vcomp_mode==VCOMP_OFF)  {
+        motor_output=_talon.getMotorOutputPercent();
+      }  else  {
+        motor_output=_talon.getMotorOutputVoltage()/NOMINAL_VOLTAGE;
+      }
+    }
+    if(adaptive==true)  {
+      learner.learn(target_velocity,motor_output);
+    }
+    System.out.printf("Time to stability = %.3f msec  motor cmd = %.3f\n",elapsed_time,motor_output);
+  }
+
+  //  The proportional step table used by computeVelocity() and the
+  //  setVelocity_xxx() functions
+  private double stepIncrement(double error)
+  {
+    if(error>2000)  {
+      return(0.05);
+    } else if(error>1000.0)  {
+      return(0.02);
+    } else if(error>500.0)  {
+      return(0.01);
+    } else if(error>100.0)  {
+      return(0.002);
+    }  else if(error>50.0) {
+      return(0.001);
+    }
+    return(0.0);
+  }
+
   ///////////////////////////////////////////////////////////////////
   //  Function: int stop()
   //////////////////////////////////////////////////////////////////
@@ -0,0 +1,1214 @@
+/////////////////////////////////////////////////////////////////////
+//  File: TrajectoryComputations.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  This file contains functions that compute the angle
+//            required to hit a target located at (x,y) from
+//            location (x0,y0)  given the launch velocity.
+//            
+//            Note the following:
+//
+//            1.  The effect of air resistance is ignored.
+//            2.  No compensation for the effect of spin.
+//                (set_model(MODEL_DRAG) selects DragTrajectory,
+//                which accounts for both 1 and 2.)
+//            3.  Classic trajectory physics.
+//            4.  Units are in inches for physical dimensions
+//                ft/sec for velocities.
+//
+//            The premise is that the projectile must have the
+//            same time of light for the x travel and y travel.
+//            When they are equal, the projectile hits the 
+//            target.
+//
+//            Note that there are two possible solutions for
+//            the y time-of-flight.  The function for the
+//            y-dependence on time is a parabola.  One
+//            solution will hit the y target prior to reaching
+//            the azimuth, the other will hit the target
+//            after reaching the azimuth.
+//
+//            For a variety of parameter values there will
+//            not be a solution.
+//
+//  Environment:  Microsoft VS - java
+//
+//  Programmer:
+//
+//  Initial Development: 1/05/2020
+//
+//  Revisions:
+//
+//  1/10/2020:  Changed variables to "private" access.
+//              Added access functions for the member variables.
+//              This will prevent variable "naming" conflicts
+//              with applications that use this class.
+//
+//  2/26/2021:  Changed distance parameters to feet and inches.
+//              Factor in the change in x and y launch locations
+//              with change in inclination angle.
+//
+//  8/12/2021:  Changed coordinate system to have the origin
+//              (0,0) at the pivot of the launch arm.  Added
+//              the variable y_floor which is the y distance
+//              from the origin to the floor.  Eliminated
+//              x_0 and y_0.  This simplifies visualization
+//              and computation of values.  Several problems
+//              were encountered and corrected.  Also eliminated
+//              "static" declaration of private member variables.
+//
+//  10/13/2021: Changed from unformatted "println(...)" to a formatted
+//              printf(...)            
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+
+package frc.robot;
+
+class   TrajectoryComputations {
+
+    //  Private member variables
+    
+    //  x_target:  This is the measured distance from the origin
+    //             to the target wall;      
+    private double x_target;
+
+    //  x:  This is the x_distance to target from the ball
+    //      center to the target and includes the effect of
+    //      inclination angle.  It will increase as the
+    //      inclination angle increases.  It is given by
+    //
+    //      x = x_target - arm_length*cos(theta))
+    private double x;    
+
+    // y_target:  This is the target height in inches from the floor.
+    private double y_target;    //  target y position in inches
+
+    //  y:  This is the target y position in inches (includes inclination)
+    //      this represents the y difference from the ball position to the
+    //      target position.  It will decrease as the inclination angle
+    //      increases.
+    //
+    //      y = y_target - y_floor - arm_length*sin(theta)
+    private double y;  
+   
+    //  These are fixed parameters based on robot contruction
+    static double y_floor = 24.0;
+    static double arm_length=35.0;
+
+    //  Don't forget our friend accleration due to gravity
+    final static double g = 32.0;
+
+    double v;    //  firing velocity in ft/second
+    double theta;  //  firing angle in degrees
+
+    //  Solver selection for solve4Theta()/solve4Theta_max().  The scan
+    //  steps theta by 0.01 degrees from line of sight to 90 degrees.
+    //  The bracketed solver finds a coarse sign change in the tof
+    //  difference and refines it with Brent's method.
+    static final int SOLVER_SCAN = 0;
+    static final int SOLVER_BRACKETED = 1;
+
+    //  Coarse bracketing step in degrees for the bracketed solver.
+    static final double BRACKET_STEP = 2.0;
+
+    private int solver_mode = SOLVER_SCAN;
+
+    //  Angular tolerance in degrees for the bracketed solver.
+    private double theta_tolerance = 0.01;
+
+    //  Number of tof evaluations used by the last bracketed solve.
+    private int solver_evaluations = 0;
+
+    //  Result holder for this object's own calls to the static solver.
+    private TrajectoryResult scratch = new TrajectoryResult();
+
+    //  Physics model for solve4Theta()/solve4Theta_max().  The vacuum
+    //  model is the closed form below.  The drag model integrates air
+    //  resistance and backspin lift numerically, see DragTrajectory.
+    static final int MODEL_VACUUM = 0;
+    static final int MODEL_DRAG = 1;
+
+    private int model = MODEL_VACUUM;
+
+    //  Created on first use of MODEL_DRAG
+    private DragTrajectory drag = null;
+
+    //  Console output from solve4Theta()/solve4Theta_max(), 1 = on.
+    //  Turn off for sweeps that call the solvers many thousands of times.
+    private int debug = 1;
+
+
+   //  Default constructor
+   TrajectoryComputations()
+   {      
+       x_target =0; //  Will be specified - horizontal distance form origin to target.
+       y_target = 98.25;  //  This is fixed per game rules
+       x=0.0;       //  This is computed based on inclination angle
+       y=0.0;       //  This is computed based on inclination angle
+       v=0.0;       //  Specified
+       theta=0.0;   //  Inclination angle, computed or specified depending on function
+   }
+
+      //  Overloaded constructor
+      //  Note:  we could include a computation of the line-of-sight inclination angle within this
+      //  constructor?
+    TrajectoryComputations(double targ_x,double launch_v,double targ_y,double launch_angle)
+    {
+        x_target=targ_x;
+        y_target=targ_y;
+        v=launch_v;
+        theta=launch_angle;
+    }
+ 
+    void set_x_target(double targ_x)  
+    {
+         x_target=targ_x;
+
+    }
+    double get_x_target()  
+    {
+         return(x_target);
+
+    }
+
+    void set_y_target(double targ_y)  
+    {
+         y_target=targ_y;
+
+    }   
+    double get_y_target()  
+    {
+         return(y_target);
+
+    }
+   
+    double get_x()  
+    {
+         return(x);
+
+    }
+    double get_y()  
+    {
+         return(y);
+
+    }
+
+    void set_y_floor(double yfloor)  
+    {
+         y_floor = yfloor;
+    }
+
+    double get_y_floor()  
+    {
+         return(y_floor);
+
+    }
+
+    void set_arm_length(double armlength)  
+    {
+         arm_length = armlength;
+    }
+
+    double get_arm_length()  
+    {
+         return(arm_length);  
+
+    }
+
+    void set_solver_mode(int mode)
+    {
+         solver_mode = mode;
+    }
+
+    int get_solver_mode()
+    {
+         return(solver_mode);
+
+    }
+
+    void set_theta_tolerance(double tolerance)
+    {
+         theta_tolerance = tolerance;
+    }
+
+    double get_theta_tolerance()
+    {
+         return(theta_tolerance);
+
+    }
+
+    int get_solver_evaluations()
+    {
+         return(solver_evaluations);
+
+    }
+
+    void set_debug(int state)
+    {
+         debug = state;
+    }
+
+    void set_model(int physics_model)
+    {
+         model = physics_model;
+         if((model==MODEL_DRAG)&&(drag==null))  {
+              drag = new DragTrajectory();
+         }
+    }
+
+    int get_model()
+    {
+         return(model);
+
+    }
+
+    //  Time of flight of the angle returned by the last drag model
+    //  solve, seconds
+    double get_drag_tof()
+    {
+         return((drag==null)?0.0:drag.getLastTimeOfFlight());
+
+    }
+
+    
+    /////////////////////////////////////////////////////////////////
+    //  Function:     double compute_tof_x( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Given the velocity and launch angle, this function
+    //            computes the time of flight along the horizontal.
+    //
+    //  Arguments: Launch velocity in ft/sec, and launch angle in degrees.  
+    //
+    //  Returns:  The time of flight in seconds as double
+    //
+    //  Remarks:  Angles are expressed in degrees.
+    //            Note that distances are in inches and velocity
+    //            must be converted from ft/sec to inches/second.
+    //            It is assumed that the 'x' target distance and arm
+    //            length are known.
+    //            Sets the member x as a side effect, see evaluate()
+    //            for the version that can be shared between threads.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double compute_tof_x(double v,double theta_deg)
+    {
+        double tof;
+        double v0_x;
+        double theta_r;
+
+     
+        //  Convert to radians
+        theta_r=theta_deg*Math.PI/180.0;
+
+        //  compensate x for inclination angle
+        x = x_target-arm_length*Math.cos(theta_r);
+        
+        //  Compute horizontal velocity component
+        v0_x=v*Math.cos(theta_r);
+
+        //  Convert to inches per second
+        v0_x*=12.0;
+
+        //  Compute time of flight
+        tof=x/v0_x;
+        return(tof);
+
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:     double compute_tof_y( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Given the velocity and distances, this function
+    //            computes the time of flight along the vertical.
+    //            This function computes the shortest time, the
+    //            arrival prior to the azimuth.
+    //
+    //  Arguments:  Launch velocity, and launch angle.  Velocity
+    //             is in ft/sec, angle in degrees.
+    //
+    //  Returns:  The time of flight in seconds as double
+    //
+    //  Remarks:  Sets the member y as a side effect, see evaluate().
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double compute_tof_y_min(double v,double theta_deg)
+    {
+        double tof;
+        double v0_y;
+        double theta_r;
+        double temp_arg;
+
+        //  Convert to radians
+        theta_r=theta_deg*Math.PI/180.0;
+
+        //  Compensate y for inclination angle.  It
+        //  gets smaller with increasing inclination angle.
+        y=y_target-y_floor-(arm_length*Math.sin(theta_r));
+
+        //  Compute vertical component
+        v0_y=v*Math.sin(theta_r);
+
+        //  convert to inches/second
+        v0_y*=12.0;
+
+        //  Compute the argument of the square root
+        temp_arg=(v0_y*v0_y) - 4*(g/2.0)*(y);
+
+   
+        //  Test for real values
+        if(temp_arg<0.0)  {
+            return(-999.99);
+        }
+
+        //  Compute time of flight for y using the
+        //  negative sign of the quadratic formula.
+        tof=(v0_y - Math.sqrt(temp_arg))/g;
+        return(tof);
+
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:     double compute_tof_y_max( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Given the velocity and distances, this function
+    //            computes the time of flight along the vertical.
+    //            This function computes the longer time, the
+    //            arrival after the azimuth.
+    //
+    //  Arguments:Launch velocity in ft/second, and launch angle
+    //            in degrees.  
+    //
+    //  Returns:  The time of flight in seconds as double
+    //
+    //  Remarks:  Distances in inches, angles are expressed in degrees.
+    //            Sets the member y as a side effect, see evaluate().
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double compute_tof_y_max(double v,double theta_deg)
+    {
+        double tof;
+        double v0_y;
+        double theta_r;
+        double temp_arg;
+
+        //  Convert to radians
+        theta_r=theta_deg*Math.PI/180.0;
+
+         //  Compensate y for inclination angle
+         y=y_target-y_floor-(arm_length*Math.sin(theta_r));
+
+
+        //  Compute vertical component
+        v0_y=v*Math.sin(theta_r);
+
+        //  Convert to inches/second
+        v0_y*=12.0;
+
+       //  Compute the argument of the square root
+       temp_arg=(v0_y*v0_y) - 4*(g/2.0)*(y);
+
+       //  Test for real values
+       if(temp_arg<0.0)  {
+           return(-999.99);
+       }
+
+       //  Compute time of flight for y
+       tof=(v0_y + Math.sqrt(temp_arg))/g;
+       return(tof);
+
+    }
+
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  computeMinTheta(double x)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the line-of-sight angle from the 
+    //            arm pivot to the center of the target.
+    //
+    //  Arguments:double x representing the horizontal distance
+    //            from the ball center at zero degrees inclination
+    //            to the target.
+    //
+    //  Returns:  The launch angle in radians expressed as double.
+    //
+    //  Remarks:  This function computes the line of sight from
+    //            the pivot arm to the center of the target.  
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double computeMinTheta(double x_target)
+    {
+
+        double temp;
+        double min_theta;
+
+        temp=(y_target-y_floor)/x_target;
+
+        min_theta=Math.atan(temp);
+
+        return(min_theta);
+
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  solve4Theta()
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the launch angle in degrees where the x and
+    //            y time-of-flight values are equal.  It firsts 
+    //            determines the minimum launch angle represented by
+    //            a direct line of sight.  From this point the
+    //            routine searchs for the minimum difference between
+    //            the x and y tofs.  If the routine fails to minimize
+    //            the difference to less than one tenth of a second it is 
+    //            assumed that a solution does not exist.
+    //
+    //  Arguments:void
+    //
+    //  Returns:  The launch angle in degress expressed as double.
+    //
+    //  Remarks:  This function computes the shortest route, i.e.,
+    //            y target hit before azimuth.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double solve4Theta()
+    {
+        double min_theta;
+        double theta;
+        double best_theta=0.0;
+        double delta;
+        double min_delta=2000.00;
+        double launch_theta;
+        double tof_x=0.0;
+        double tof_y=0.0;
+        double best_tof_x=0;
+        double best_tof_y=0;
+   
+        if(model==MODEL_DRAG)  {
+            return(drag.solve4Theta(x_target,y_target,y_floor,arm_length,v,false));
+        }
+        if(solver_mode==SOLVER_BRACKETED)  {
+            return(solve4Theta_bracketed(false));
+        }
+
+        //  minimum theta is direct line of sight
+        //  this function will return the value in radians
+        min_theta=computeMinTheta(x_target);
+
+        //  convert to degrees
+        min_theta=(180.0/Math.PI)*min_theta;
+
+        if(debug==1)  {
+            System.out.printf("Line of Sight Angle = %.3f deg\n",min_theta);
+        }
+
+        //  Search for minimum delta of tof x & y
+        for(theta=min_theta;theta<90.0;theta+=.01)  {
+            //  These functions require that theta is in degrees.
+            tof_y=compute_tof_y_min(v,theta);  
+            tof_x=compute_tof_x(v,theta);  
+
+            delta=Math.abs(tof_y-tof_x);
+            if(delta<min_delta)  {
+                min_delta=delta;
+                best_theta=theta;
+                best_tof_x=tof_x;
+                best_tof_y=tof_y;
+            }
+
+        }
+        
+
+        //  Limit tof difference to 0.1 second
+        if(min_delta>0.1)  {
+            if(debug==1)  {
+                System.out.println("No solution, theta min: TOF difference > 0.1 seconds.");
+            }
+            return(0.0);
+        }
+
+        if(debug==1)  {
+            System.out.printf("delta tmin = %.4f  best_theta = %.4f\n",min_delta,best_theta);
+            System.out.printf("TOF_y = %.3f\n",best_tof_y);
+            System.out.printf("TOF_x = %.3f\n",best_tof_x);
+        }
+
+        launch_theta=best_theta;
+        return(launch_theta);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  solve4Theta_max()
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the launch angle in degrees where the x and
+    //            y time-of-flight values are equal.  It firsts 
+    //            determines the minimum launch angle represented by
+    //            a direct line of sight.  From this point the
+    //            routine searchs for the minimum difference between
+    //            the x and y tofs.  If the routine fails to minimize
+    //            the difference to less than one tenth of asecond it is 
+    //            assumed that a solution does not exist.
+    //
+    //  Arguments:void
+    //
+    //  Returns:  The launch angle in degress expressed as double.
+    //
+    //  Remarks:  This function computes the longest route, i.e.,
+    //            y target hit after azimuth.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double solve4Theta_max()
+    {
+        double min_theta;
+        double theta;
+        double best_theta=0.0;
+        double delta;
+        double min_delta=2000.00;
+        double launch_theta;
+        double tof_x=0.0;
+        double tof_y=0.0;
+        double best_tof_x=0;
+        double best_tof_y=0;
+
+        if(model==MODEL_DRAG)  {
+            return(drag.solve4Theta(x_target,y_target,y_floor,arm_length,v,true));
+        }
+        if(solver_mode==SOLVER_BRACKETED)  {
+            return(solve4Theta_bracketed(true));
+        }
+
+        //  minimum theta is direct line of sight
+        //  this function will return the value in radians
+        min_theta=computeMinTheta(x_target);
+
+        //  convert to degrees
+        min_theta=(180.0/Math.PI)*min_theta;
+
+        //  Search for minimum delta of tof x & y
+        for(theta=min_theta;theta<90.0;theta+=.01)  {
+            //  These functions require that theta is in degrees.
+            tof_y=compute_tof_y_max(v,theta);  
+            tof_x=compute_tof_x(v,theta);  
+
+            delta=Math.abs(tof_y-tof_x);
+            if(delta<min_delta)  {
+                min_delta=delta;
+                best_theta=theta;
+                best_tof_x=tof_x;
+                best_tof_y=tof_y;
+            }
+
+        }
+
+        //  Limit tof difference to 0.1 second
+        if(min_delta>0.1)  {
+            if(debug==1)  {
+                System.out.println("No solution, theta max: TOF difference > 0.1 seconds.");
+            }
+            return(0.0);
+        }
+
+        if(debug==1)  {
+            System.out.printf("delta tmax = %.4f  best_theta = %.4f\n",min_delta,best_theta);
+            System.out.printf("TOF_y = %.3f\n",best_tof_y);
+            System.out.printf("TOF_x = %.3f\n",best_tof_x);
+        }
+       
+        launch_theta=best_theta;
+        return(launch_theta);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  solve4Theta_bracketed(boolean max_arc)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the launch angle in degrees where the x and
+    //            y time-of-flight values are equal using the current
+    //            x_target, y_target and velocity of this object.
+    //
+    //  Arguments:boolean max_arc, false for the shortest route
+    //            (compute_tof_y_min), true for the longest route
+    //            (compute_tof_y_max).
+    //
+    //  Returns:  The launch angle in degrees expressed as double.
+    //            Returns 0.0 when no solution exists, the same as
+    //            solve4Theta() and solve4Theta_max().
+    //
+    //  Remarks:  See solveTheta() for the method.  The number of
+    //            evaluations is available via get_solver_evaluations().
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double solve4Theta_bracketed(boolean max_arc)
+    {
+        double launch_theta;
+
+        launch_theta=solveTheta(x_target,y_target,y_floor,arm_length,v,
+                                max_arc,theta_tolerance,scratch);
+        solver_evaluations=scratch.evaluations;
+        return(launch_theta);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static void evaluate( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Side-effect free version of compute_tof_x(),
+    //            compute_tof_y_min() and compute_tof_y_max().  All
+    //            three times of flight are computed from a single
+    //            sin/cos of the launch angle.
+    //
+    //  Arguments:x_target, y_target (inches), y_floor, arm_length
+    //            (inches), launch velocity (ft/sec), launch angle
+    //            (degrees) and the caller's result holder.
+    //
+    //  Returns:  void, results are written to "out".
+    //
+    //  Remarks:  Touches nothing but its arguments, so one solver
+    //            can serve several threads at once provided each
+    //            thread passes its own TrajectoryResult.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    static void evaluate(double x_target,double y_target,double y_floor,double arm_length,
+                         double v,double theta_deg,TrajectoryResult out)
+    {
+        double theta_r;
+        double cos_t;
+        double sin_t;
+        double v0_y;
+        double temp_arg;
+        double root;
+
+        //  Convert to radians
+        theta_r=theta_deg*Math.PI/180.0;
+        cos_t=Math.cos(theta_r);
+        sin_t=Math.sin(theta_r);
+
+        //  compensate x and y for inclination angle
+        out.x=x_target-arm_length*cos_t;
+        out.y=y_target-y_floor-(arm_length*sin_t);
+
+        //  Velocity components in inches per second
+        out.tof_x=out.x/(12.0*v*cos_t);
+        v0_y=12.0*v*sin_t;
+
+        //  Compute the argument of the square root
+        temp_arg=(v0_y*v0_y) - 4*(g/2.0)*(out.y);
+
+        //  Test for real values
+        if(temp_arg<0.0)  {
+            out.tof_y_min=-999.99;
+            out.tof_y_max=-999.99;
+            out.valid=false;
+            return;
+        }
+
+        root=Math.sqrt(temp_arg);
+        out.tof_y_min=(v0_y - root)/g;
+        out.tof_y_max=(v0_y + root)/g;
+        out.valid=true;
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static void evaluateBatch( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  evaluate() for many (theta, v) candidates at once,
+    //            for scoring candidate launch velocities.  Also
+    //            reports the miss distance, the height of the ball
+    //            above the target when it reaches the target x.
+    //
+    //  Arguments:x_target, y_target, y_floor, arm_length (inches),
+    //            parallel arrays of launch angles (degrees) and
+    //            velocities (ft/sec), the number of candidates, and
+    //            the caller's output arrays tof_x, tof_y and miss
+    //            (seconds, seconds, inches).  max_arc selects the
+    //            tof_y_max root, otherwise tof_y_min.
+    //
+    //  Returns:  void, results are written to the output arrays.
+    //            tof_y is -999.99 when there is no real solution.
+    //
+    //  Remarks:  Split into passes so the middle one is straight
+    //            line arithmetic over arrays, which C2 can
+    //            auto-vectorize.  The sin/cos pass cannot be, it
+    //            parks cos in tof_x and sin in tof_y so no scratch
+    //            arrays are needed.  The miss needs no square root,
+    //            so it is valid for every candidate.
+    //
+    //            Side-effect free like evaluate(), the output arrays
+    //            belong to the caller.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    static void evaluateBatch(double x_target,double y_target,double y_floor,double arm_length,
+                              double theta_deg[],double v[],int count,
+                              double tof_x[],double tof_y[],double miss[],boolean max_arc)
+    {
+        final double deg2rad=Math.PI/180.0;
+        final double y_goal=y_target-y_floor;
+        final double sign=(max_arc==true)?1.0:-1.0;
+        double theta_r;
+        double x;
+        double y;
+        double v0_x;
+        double v0_y;
+        double t;
+        double temp_arg;
+        int i;
+
+        //  Pass 1:  trig, cos into tof_x and sin into tof_y
+        for(i=0;i<count;i++)  {
+            theta_r=theta_deg[i]*deg2rad;
+            tof_x[i]=Math.cos(theta_r);
+            tof_y[i]=Math.sin(theta_r);
+        }
+
+        //  Pass 2:  branch free arithmetic.  A negative square root
+        //  argument leaves NaN in tof_y for pass 3.
+        for(i=0;i<count;i++)  {
+            x=x_target-arm_length*tof_x[i];
+            y=y_goal-arm_length*tof_y[i];
+            v0_x=12.0*v[i]*tof_x[i];
+            v0_y=12.0*v[i]*tof_y[i];
+
+            t=x/v0_x;
+            temp_arg=(v0_y*v0_y) - 2.0*g*y;
+
+            tof_x[i]=t;
+            tof_y[i]=(v0_y + sign*Math.sqrt(temp_arg))/g;
+            miss[i]=v0_y*t - 0.5*g*t*t - y;
+        }
+
+        //  Pass 3:  no real solution marker
+        for(i=0;i<count;i++)  {
+            if(tof_y[i]!=tof_y[i])  {
+                tof_y[i]=-999.99;
+            }
+        }
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static double solveTheta( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the launch angle in degrees where the x and
+    //            y time-of-flight values are equal.  Rather than
+    //            stepping 0.01 degrees at a time, the difference
+    //            tof_y - tof_x is sampled every BRACKET_STEP degrees
+    //            from line of sight until it changes sign.  The root
+    //            inside that bracket is then refined with Brent's
+    //            method to within the requested tolerance.
+    //
+    //  Arguments:x_target, y_target, y_floor, arm_length (inches),
+    //            launch velocity (ft/sec), max_arc (false for the
+    //            shortest route, true for the longest), tolerance in
+    //            degrees and the caller's result holder.
+    //
+    //  Returns:  The launch angle in degrees, 0.0 if there is no
+    //            solution.  On return "out" holds the evaluation at
+    //            the last angle tried and out.evaluations the number
+    //            of evaluations used.
+    //
+    //  Remarks:  A typical solve takes 20-40 evaluations versus
+    //            several thousand for the scan, which makes it cheap
+    //            enough to run every 20msec loop.  Like evaluate(),
+    //            nothing outside the arguments is touched.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    static double solveTheta(double x_target,double y_target,double y_floor,double arm_length,
+                             double v,boolean max_arc,double tolerance,TrajectoryResult out)
+    {
+        double min_theta;
+        double theta_a;
+        double theta_b;
+        double theta_next;
+        double f_a;
+        double f_b;
+        double f_next;
+        double best_theta=0.0;
+        double best_delta=2000.0;
+        int evaluations;
+
+        //  minimum theta is direct line of sight
+        min_theta=(180.0/Math.PI)*Math.atan((y_target-y_floor)/x_target);
+
+        //  Walk up from line of sight looking for a sign change in
+        //  the tof difference.  Invalid samples (no real y solution)
+        //  break the bracket since the difference is undefined there.
+        evaluations=0;
+        theta_a=min_theta;
+        f_a=tofDifference(x_target,y_target,y_floor,arm_length,v,theta_a,max_arc,out);
+        evaluations++;
+        if(!Double.isNaN(f_a))  {
+            best_theta=theta_a;
+            best_delta=Math.abs(f_a);
+        }
+
+        while(theta_a<90.0)  {
+            theta_b=Math.min(theta_a+BRACKET_STEP,89.99);
+            f_b=tofDifference(x_target,y_target,y_floor,arm_length,v,theta_b,max_arc,out);
+            evaluations++;
+            theta_next=theta_b;
+            f_next=f_b;
+
+            if(!Double.isNaN(f_b)&&(Math.abs(f_b)<best_delta))  {
+                best_delta=Math.abs(f_b);
+                best_theta=theta_b;
+            }
+
+            //  Entering or leaving the region with a real y solution.
+            //  A root can sit right at the edge where the y arcs merge,
+            //  so pull the invalid end point in to the edge first.
+            if(Double.isNaN(f_a)&&!Double.isNaN(f_b))  {
+                theta_a=findValidEdge(x_target,y_target,y_floor,arm_length,v,
+                                      theta_b,theta_a,max_arc,tolerance,out);
+                evaluations+=out.evaluations;
+                f_a=tofDifference(x_target,y_target,y_floor,arm_length,v,theta_a,max_arc,out);
+                evaluations++;
+                if(Math.abs(f_a)<best_delta)  {
+                    best_delta=Math.abs(f_a);
+                    best_theta=theta_a;
+                }
+            }  else if(!Double.isNaN(f_a)&&Double.isNaN(f_b))  {
+                theta_b=findValidEdge(x_target,y_target,y_floor,arm_length,v,
+                                      theta_a,theta_b,max_arc,tolerance,out);
+                evaluations+=out.evaluations;
+                f_b=tofDifference(x_target,y_target,y_floor,arm_length,v,theta_b,max_arc,out);
+                evaluations++;
+                if(Math.abs(f_b)<best_delta)  {
+                    best_delta=Math.abs(f_b);
+                    best_theta=theta_b;
+                }
+            }
+
+            if(!Double.isNaN(f_a)&&!Double.isNaN(f_b)&&((f_a<=0.0)==(f_b>=0.0)))  {
+                best_theta=brentRefine(x_target,y_target,y_floor,arm_length,v,
+                                       theta_a,theta_b,f_a,f_b,max_arc,tolerance,out);
+                out.evaluations+=evaluations;
+                return(best_theta);
+            }
+
+            if(theta_next>=89.99)  {
+                break;
+            }
+            theta_a=theta_next;
+            f_a=f_next;
+        }
+
+        out.evaluations=evaluations;
+
+        //  No sign change.  The difference may still touch zero
+        //  without crossing it, accept the closest sample if it
+        //  satisfies the same 0.1 second limit as the scan.
+        if(best_delta>0.1)  {
+            return(0.0);
+        }
+        return(best_theta);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static double brentRefine( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Brent's method root refinement of tof_y - tof_x
+    //            inside a bracket [theta_a,theta_b] in degrees.
+    //
+    //  Arguments:The geometry and velocity, the bracket end points,
+    //            the tof difference at each end (opposite signs), the
+    //            arc selection, tolerance and result holder.
+    //
+    //  Returns:  The launch angle in degrees.  out.evaluations is
+    //            set to the number of evaluations used.
+    //
+    //  Remarks:  Combines inverse quadratic interpolation, secant
+    //            and bisection steps.  Bisection guarantees
+    //            convergence, interpolation makes it fast.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    private static double brentRefine(double x_target,double y_target,double y_floor,double arm_length,
+                                      double v,double theta_a,double theta_b,double f_a,double f_b,
+                                      boolean max_arc,double tolerance,TrajectoryResult out)
+    {
+        final int max_iterations=50;
+
+        double a=theta_a;
+        double b=theta_b;
+        double c=theta_b;
+        double fa=f_a;
+        double fb=f_b;
+        double fc=f_b;
+        double d=0.0;
+        double e=0.0;
+        double tol;
+        double xm;
+        double p;
+        double q;
+        double r;
+        double s;
+        int i;
+
+        for(i=0;i<max_iterations;i++)  {
+
+            //  Keep the root between b and c
+            if((fb>0.0&&fc>0.0)||(fb<0.0&&fc<0.0))  {
+                c=a;
+                fc=fa;
+                d=b-a;
+                e=d;
+            }
+            //  b is always the best estimate
+            if(Math.abs(fc)<Math.abs(fb))  {
+                a=b;
+                b=c;
+                c=a;
+                fa=fb;
+                fb=fc;
+                fc=fa;
+            }
+
+            tol=0.5*tolerance;
+            xm=0.5*(c-b);
+            if((Math.abs(xm)<=tol)||(fb==0.0))  {
+                out.evaluations=i;
+                return(b);
+            }
+
+            if((Math.abs(e)>=tol)&&(Math.abs(fa)>Math.abs(fb)))  {
+                //  Attempt inverse quadratic interpolation
+                s=fb/fa;
+                if(a==c)  {
+                    p=2.0*xm*s;
+                    q=1.0-s;
+                }  else  {
+                    q=fa/fc;
+                    r=fb/fc;
+                    p=s*(2.0*xm*q*(q-r)-(b-a)*(r-1.0));
+                    q=(q-1.0)*(r-1.0)*(s-1.0);
+                }
+                if(p>0.0)  {
+                    q=-q;
+                }
+                p=Math.abs(p);
+                if(2.0*p<Math.min(3.0*xm*q-Math.abs(tol*q),Math.abs(e*q)))  {
+                    //  Accept interpolation
+                    e=d;
+                    d=p/q;
+                }  else  {
+                    //  Interpolation failed, use bisection
+                    d=xm;
+                    e=d;
+                }
+            }  else  {
+                //  Bounds decreasing too slowly, use bisection
+                d=xm;
+                e=d;
+            }
+
+            a=b;
+            fa=fb;
+            if(Math.abs(d)>tol)  {
+                b+=d;
+            }  else  {
+                b+=(xm>0.0)?tol:-tol;
+            }
+            fb=tofDifference(x_target,y_target,y_floor,arm_length,v,b,max_arc,out);
+        }
+        out.evaluations=max_iterations;
+        return(b);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static double findValidEdge( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Bisects for the edge of the region where the y time
+    //            of flight has a real solution.
+    //
+    //  Arguments:The geometry and velocity, theta_valid (an angle
+    //            with a real solution), theta_invalid (an angle
+    //            without one), the arc selection, tolerance in
+    //            degrees and result holder.
+    //
+    //  Returns:  The angle closest to the edge that still has a
+    //            real solution.  out.evaluations is set to the
+    //            number of evaluations used.
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    private static double findValidEdge(double x_target,double y_target,double y_floor,double arm_length,
+                                        double v,double theta_valid,double theta_invalid,
+                                        boolean max_arc,double tolerance,TrajectoryResult out)
+    {
+        double mid;
+        int evaluations=0;
+
+        while(Math.abs(theta_invalid-theta_valid)>tolerance)  {
+            mid=0.5*(theta_valid+theta_invalid);
+            evaluations++;
+            if(Double.isNaN(tofDifference(x_target,y_target,y_floor,arm_length,v,mid,max_arc,out)))  {
+                theta_invalid=mid;
+            }  else  {
+                theta_valid=mid;
+            }
+        }
+        out.evaluations=evaluations;
+        return(theta_valid);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  static double tofDifference( ... )
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  The function whose root is the launch angle,
+    //            tof_y - tof_x.
+    //
+    //  Arguments:The geometry, velocity, launch angle in degrees,
+    //            arc selection and result holder.
+    //
+    //  Returns:  The tof difference in seconds, or NaN when there
+    //            is no real y time of flight at this angle.
+    //
+    //  Remarks:
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    private static double tofDifference(double x_target,double y_target,double y_floor,double arm_length,
+                                        double v,double theta_deg,boolean max_arc,TrajectoryResult out)
+    {
+        evaluate(x_target,y_target,y_floor,arm_length,v,theta_deg,out);
+
+        if(out.valid==false)  {
+            return(Double.NaN);
+        }
+        if(max_arc==true)  {
+            return(out.tof_y_max-out.tof_x);
+        }
+        return(out.tof_y_min-out.tof_x);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double computeYposition(double theta,double v,double t)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the Y position as a function of the
+    //            inclination angle and time.
+    //
+    //  Arguments: double theta  (inclination angle)
+    //             double v, velocity in (ft/sec)
+    //             double t, time  (in seconds)
+    //
+    //  Returns:  double representing the Y position in inches
+    //
+    //  Remarks:  
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double computeYposition(double theta,double v,double t)
+    {
+        double ypos;
+        double v_y;
+        double init_y;
+    
+        //  Convert to radians
+        theta = theta*Math.PI/180.0;
+
+        //  compensate y for inclination angle
+        init_y = arm_length*(Math.sin(theta));
+
+        //  Convert velocity to inches per second
+        v*=12.0;
+
+        //  Compute vertical velocity component
+        v_y=v*Math.sin(theta);
+
+    
+        ypos=init_y + v_y*t - 0.5*g*t*t;
+    
+        return(ypos);
+    }
+
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double computeXposition(double theta,
+    //                               double velocity,double t)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Computes the X position as a function of the
+    //            inclination angle and time.
+    //
+    //  Arguments: double theta  (inclination angle in degrees)
+    //             double v, velocity int (ft/sec)
+    //             double t, time  (in seconds)
+    //
+    //  Returns:  double representing the X position in inches  
+    //
+    //  Remarks:  
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double computeXposition(double theta,double v,double t)
+    {
+        double init_x;
+        double xpos;
+        double v_x;
+
+
+        //  Convert to radians
+        theta=theta*Math.PI/180.0;
+
+        //  compensate x for inclination angle
+        init_x=arm_length*Math.cos(theta);
+
+        //  Convert velocity to inches per second
+        v*=12.0;
+
+        //  Compute horizontal velocity component
+        v_x=v*Math.cos(theta);
+
+    
+        xpos=init_x + v_x*t;
+        
+
+        return(xpos);
+
+
+    }
+
+
+
+
+
+    //  Function template
+    /////////////////////////////////////////////////////////////////
+    //  Function:  
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  
+    //
+    //  Arguments:void
+    //
+    //  Returns:  
+    //
+    //  Remarks:  
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+
+
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  TrajectoryResult.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Caller-supplied result holder for the static
+//            TrajectoryComputations evaluation and solver functions.
+//
+//  Remarks:  Each thread (shoot thread, drive thread, dashboard)
+//            creates one of these once and reuses it for every
+//            call.  The static functions only write into the
+//            holder they are given, so no locking is required and
+//            no garbage is created per call.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+class TrajectoryResult {
+
+    //  x distance from the ball to the target at this inclination (inches)
+    double x;
+
+    //  y distance from the ball to the target at this inclination (inches)
+    double y;
+
+    //  Horizontal time of flight in seconds
+    double tof_x;
+
+    //  Vertical times of flight in seconds, arrival before and after
+    //  the azimuth.  -999.99 when there is no real solution, the same
+    //  convention as compute_tof_y_min()/compute_tof_y_max().
+    double tof_y_min;
+    double tof_y_max;
+
+    //  true when the vertical times of flight are real
+    boolean valid;
+
+    //  Number of evaluations used by the last solve
+    int evaluations;
+}
@@ -9,16 +9,46 @@
 //  Remarks:  Appears to be accurate to tenths of microseconds -
 //            probably better without error calculation.
 //
+//            The thread is parked (LockSupport.parkNanos()) for
+//            all but the last spin_nanoseconds of a delay and only
+//            spins on System.nanoTime() for that remainder.  The
+//            roboRIO has two cores, a delay that spins for its
+//            whole length keeps one of them busy and starves the
+//            NetworkTables and HAL threads.
+//
+//            A parked thread wakes up late by the kernel timer
+//            slack, typically 50 - 100 microseconds on Linux, so
+//            the spin window has to cover that or every delay
+//            overshoots.  Delays shorter than the window spin as
+//            before.
+//
+//            Every delay adds achieved minus requested time to a
+//            histogram shared by all Delay objects, see
+//            printJitterHistogram(), so the accuracy on the robot
+//            can be checked and the spin window tuned.
+//
 /////////////////////////////////////////////////////////////////////
 /////////////////////////////////////////////////////////////////////
 package frc.robot;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
 class Delay  {
     public double delay_seconds;
     public double delay_milliseconds;
     public double delay_microseconds;
     public long delay_nanoseconds;
 
+    //  Time spun at the end of each delay instead of parked
+    private long spin_nanoseconds=100000;
+
+    //  Jitter histogram upper bin edges in microseconds, the last
+    //  bin counts everything above the last edge.
+    static final double JITTER_BINS[]={1.0,2.0,5.0,10.0,20.0,50.0,100.0,200.0,500.0,1000.0};
+    private static final AtomicLongArray jitter_counts=new AtomicLongArray(JITTER_BINS.length+1);
+    private static final AtomicLongArray jitter_stats=new AtomicLongArray(2);  //  sum, max (nsec)
+
     Delay()  {
         delay_seconds=0.0;
         delay_milliseconds=0.0;
@@ -26,65 +56,156 @@ class Delay  {
     }
 
     public double delay_seconds(double seconds)  {
-        long start_time=0;
-        long end_time=0;
         long nanoseconds;
         double elapsed_time;
 
         nanoseconds=(long)(seconds*1e9);
 
-        start_time=System.nanoTime();
-        end_time=System.nanoTime();
-
-        while((end_time-start_time)<nanoseconds)  {
-            end_time=System.nanoTime();
-        }
-
-        //  This code introduces a timing error of 0.1 - 0.2 microseconds.
-        elapsed_time=(double)(end_time-start_time)/1e9;
+        elapsed_time=(double)wait_nanoseconds(nanoseconds)/1e9;
         return(elapsed_time);
 
     }
 
     public double delay_milliseconds(double milliseconds)  {
-        long start_time=0;
-        long end_time=0;
         long nanoseconds;
         double elapsed_time;
 
         nanoseconds=(long)(milliseconds*1e6);
 
-        start_time=System.nanoTime();
-        end_time=System.nanoTime();
-
-        while((end_time-start_time)<nanoseconds)  {
-            end_time=System.nanoTime();
-        }
-
-        //  This code introduces a timing error of 0.1 - 0.2 microseconds.
-        elapsed_time=(double)(end_time-start_time)/1e6;
+        elapsed_time=(double)wait_nanoseconds(nanoseconds)/1e6;
         return(elapsed_time);
 
     }
 
     public double delay_microseconds(double microseconds)  {
-        long start_time=0;
-        long end_time=0;
         long nanoseconds;
         double elapsed_time;
 
         nanoseconds=(long)(microseconds*1e3);
 
+        elapsed_time=(double)wait_nanoseconds(nanoseconds)/1e3;
+        return(elapsed_time);
+
+    }
+
+    //  Length of the final spin in microseconds, zero parks for the
+    //  whole delay.
+    public int setSpinTime(double microseconds)  {
+        if(microseconds<0.0)  {
+            return(-1);
+        }
+        spin_nanoseconds=(long)(microseconds*1e3);
+        return(0);
+    }
+
+    public double getSpinTime()  {
+        return((double)spin_nanoseconds/1e3);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  long wait_nanoseconds(long nanoseconds)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Parks, then spins, until the time has passed.
+    //
+    //  Arguments:The delay in nanoseconds.
+    //
+    //  Returns:  The achieved delay in nanoseconds.
+    //
+    //  Remarks:  parkNanos() may return early (spuriously or on an
+    //            interrupt), so it is repeated until only the spin
+    //            window is left.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    private long wait_nanoseconds(long nanoseconds)  {
+        long start_time;
+        long end_time;
+        long remaining;
+
         start_time=System.nanoTime();
-        end_time=System.nanoTime();
+        end_time=start_time;
+
+        remaining=nanoseconds-spin_nanoseconds;
+        while(remaining>0)  {
+            LockSupport.parkNanos(remaining);
+            end_time=System.nanoTime();
+            remaining=nanoseconds-spin_nanoseconds-(end_time-start_time);
+        }
 
         while((end_time-start_time)<nanoseconds)  {
             end_time=System.nanoTime();
         }
 
-        //  This code introduces a timing error of 0.1 - 0.2 microseconds.
-        elapsed_time=(double)(end_time-start_time)/1e3;
-        return(elapsed_time);
+        record_jitter((end_time-start_time)-nanoseconds);
+        return(end_time-start_time);
+    }
+
+    private static void record_jitter(long nanoseconds)  {
+        double microseconds=(double)nanoseconds/1e3;
+        long max;
+        int i;
+
+        for(i=0;i<JITTER_BINS.length;i++)  {
+            if(microseconds<JITTER_BINS[i])  {
+                break;
+            }
+        }
+        jitter_counts.incrementAndGet(i);
+        jitter_stats.addAndGet(0,nanoseconds);
+
+        max=jitter_stats.get(1);
+        while((nanoseconds>max)&&(jitter_stats.compareAndSet(1,max,nanoseconds)==false))  {
+            max=jitter_stats.get(1);
+        }
+    }
+
+    //  Counts per bin, see JITTER_BINS
+    public static long[] getJitterHistogram()  {
+        long counts[]=new long[jitter_counts.length()];
+        int i;
 
+        for(i=0;i<counts.length;i++)  {
+            counts[i]=jitter_counts.get(i);
+        }
+        return(counts);
+    }
+
+    //  Largest overshoot seen, in microseconds
+    public static double getMaxJitter()  {
+        return((double)jitter_stats.get(1)/1e3);
+    }
+
+    public static void resetJitterHistogram()  {
+        int i;
+
+        for(i=0;i<jitter_counts.length();i++)  {
+            jitter_counts.set(i,0);
+        }
+        jitter_stats.set(0,0);
+        jitter_stats.set(1,0);
+    }
+
+    public static void printJitterHistogram()  {
+        long counts[]=getJitterHistogram();
+        long total=0;
+        int i;
+
+        for(i=0;i<counts.length;i++)  {
+            total+=counts[i];
+        }
+        if(total==0)  {
+            System.out.printf("Delay jitter:  no delays recorded\n");
+            return;
+        }
+        System.out.printf("Delay jitter over %d delays, mean %.2f usec, max %.2f usec\n",
+            total,(double)jitter_stats.get(0)/total/1e3,getMaxJitter());
+        for(i=0;i<counts.length;i++)  {
+            if(i<JITTER_BINS.length)  {
+                System.out.printf("  < %7.1f usec  %8d\n",JITTER_BINS[i],counts[i]);
+            }  else  {
+                System.out.printf("  >=%7.1f usec  %8d\n",JITTER_BINS[i-1],counts[i]);
+            }
+        }
     }
-}
\ No newline at end of file
+}
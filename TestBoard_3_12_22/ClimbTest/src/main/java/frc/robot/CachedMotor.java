@@ -0,0 +1,91 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  CachedMotor.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  The part of RobotMotor that is the same for every
+//            make:  the cached position and velocity, the stored
+//            output and the write-on-change flush(), and the gear
+//            reduction.
+//
+//  Remarks:  A subclass only talks to its controller, see
+//            FalconMotor and NeoMotor.  readPosition() and
+//            readVelocity() return revolutions and RPM of the
+//            motor shaft, the reduction is applied here.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+abstract class CachedMotor implements RobotMotor {
+
+    private final String name;
+
+    private double reduction=1.0;
+    private double position=0.0;
+    private double velocity=0.0;
+    private double output=0.0;
+    private double written=Double.NaN;   //  nothing sent yet
+
+    CachedMotor(String name)
+    {
+        this.name=name;
+    }
+
+    //  Vendor calls, motor shaft units
+    abstract double readPosition();   //  revolutions
+    abstract double readVelocity();   //  RPM
+    abstract void write(double power);
+    abstract void zeroPosition();
+
+    public int refresh()
+    {
+        position=readPosition()/reduction;
+        velocity=readVelocity()/reduction;
+        return(0);
+    }
+
+    public double getPosition()  { return(position); }
+    public double getVelocity()  { return(velocity); }
+
+    public int setOutput(double power)
+    {
+        output=power;
+        return(0);
+    }
+
+    public double getOutput()  { return(output); }
+
+    public int flush()
+    {
+        if(output==written)  {
+            return(0);
+        }
+        write(output);
+        written=output;
+        return(1);
+    }
+
+    public int invalidate()
+    {
+        written=Double.NaN;
+        return(0);
+    }
+
+    public int resetPosition()
+    {
+        zeroPosition();
+        position=0.0;
+        return(0);
+    }
+
+    public int setReduction(double ratio)
+    {
+        if(ratio<=0.0)  {
+            return(-1);
+        }
+        reduction=ratio;
+        return(0);
+    }
+
+    public String getName()  { return(name); }
+}
@@ -65,6 +65,11 @@ public class Climb extends Robot {
 
     int falcon_init=1;
 
+    //  Vendor neutral view of the Falcon and the shared speed
+    //  control, see RobotMotor and VelocityLoop.
+    FalconMotor falcon_motor;
+    VelocityLoop falcon_loop;
+
     int position_init=1;
 
     //  class constructor
@@ -76,6 +81,9 @@ public class Climb extends Robot {
 
         falcon.configSelectedFeedbackSensor(TalonFXFeedbackDevice.IntegratedSensor,0, 50);
 
+        falcon_motor=new FalconMotor(falcon,"climb");
+        falcon_loop=new VelocityLoop(falcon_motor,falcon_power,FALCON_deadband,0.005,0.01,0.02);
+
         pneumo=new pneumatics();
 
         delay=new Delay();
@@ -146,6 +154,10 @@ public class Climb extends Robot {
     //  3/9/22:  Proportional power adjustment and 20msec delay
     //           appears to work.
     //  3/13/22: Tested for both positive and negative targets.
+    //           The steps are now in VelocityLoop, shared with
+    //           Shooter.setNEOspeed(), with the Falcon's larger
+    //           steps and tighter deadband.  falcon_motor does the
+    //           conversion to RPM.
     //
     /////////////////////////////////////////////////////////////////
     /////////////////////////////////////////////////////////////////
@@ -156,53 +168,16 @@ public class Climb extends Robot {
         double speed;
      
         if(falcon_init==1) {
-          if(target<0.0)falcon_power*=-1.0;
-          falcon.set(ControlMode.PercentOutput, falcon_power);
+          falcon_loop.reset();
           falcon_init=0;
         }
         delay.delay_milliseconds(20.0);
-        speed=falcon.getSelectedSensorVelocity(0);
-        speed=convert2RPM(speed);
-        error=target-speed;
-
-        if(Math.abs(error)>FALCON_deadband)  {
-            error=target-speed;
-            if(error>0.0)  {
-              if(error>300.0) {
-                falcon_power+=0.02;
-              }  else if((error>100.0)&&(error<300.0)) {
-                falcon_power+=0.01;
-              }  else if((error>FALCON_deadband)&&(error<100.0)) {
-                falcon_power+=0.005;
-              }  else {
-                ;
-              }
-           
-            } else if(error<0.0)  {
-              if(error<-300.0) {
-                falcon_power-=0.02;
-              }  else if((error<-100.0)&&(error>-300.0)) {
-                falcon_power-=0.01;
-              }  else if((error<-FALCON_deadband)&&(error>-100.0)) {
-                falcon_power-=0.005;
-              }  else {
-                ;
-              }
-            }
-            falcon.set(ControlMode.PercentOutput, falcon_power);
-            delay.delay_milliseconds(20.0);
-            speed=falcon.getSelectedSensorVelocity(0);
-            speed=convert2RPM(speed); 
-        }  else  {
-          falcon.set(ControlMode.PercentOutput, falcon_power);
-          delay.delay_milliseconds(20.0);
-          speed=falcon.getSelectedSensorVelocity(0);
-          speed=convert2RPM(speed);   
-        }
+        error=falcon_loop.update(target);
+        speed=falcon_motor.getVelocity();
 
         if(debug==1) {
           System.out.printf("Speed = %.3f RPM  ",speed);
-          System.out.printf("Power = %.3f\n",falcon_power);
+          System.out.printf("Power = %.3f\n",falcon_loop.getPower());
         }
         return(error);
     }
@@ -310,35 +285,14 @@ public class Climb extends Robot {
         }
 
     }
+
+    //  The Talon was written directly above, make the next
+    //  setFALCONspeed() send its power even if it looks unchanged.
+    falcon_motor.invalidate();
     return(error);
   }
 
 
-    /////////////////////////////////////////////////////////////////
-    //  Function:  double convert2RPM(double)
-    /////////////////////////////////////////////////////////////////
-    //
-    //  Purpose:
-    //
-    //  Arguments:
-    //
-    //  Returns:
-    //
-    //  Remarks:
-    //
-    /////////////////////////////////////////////////////////////////
-    /////////////////////////////////////////////////////////////////
-    private double convert2RPM(double speed)
-    {
-        double rpm;
-
-        speed*=10.0;   //  Convert counts/100msec to counts/sec
-        speed/=2048.0; //  Convert to revolutions/sec
-        rpm=speed*60.0;
-
-        return(rpm);
-    }
-
     /////////////////////////////////////////////////////////////////
     //  Function:  double convert2Degrees(double counts)
     /////////////////////////////////////////////////////////////////
@@ -0,0 +1,55 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  FalconMotor.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  RobotMotor on a Falcon 500 (TalonFX), using the
+//            integrated sensor.
+//
+//  Remarks:  The Talon reports 2048 counts per revolution and
+//            velocity in counts per 100msec, both are converted
+//            here to revolutions and RPM.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+
+class FalconMotor extends CachedMotor {
+
+    static final double COUNTS_PER_REV = 2048.0;
+
+    private final WPI_TalonFX talon;
+
+    FalconMotor(WPI_TalonFX talon,String name)
+    {
+        super(name);
+        this.talon=talon;
+    }
+
+    WPI_TalonFX getTalon()
+    {
+        return(talon);
+    }
+
+    double readPosition()
+    {
+        return(talon.getSelectedSensorPosition(0)/COUNTS_PER_REV);
+    }
+
+    double readVelocity()
+    {
+        return(talon.getSelectedSensorVelocity(0)*600.0/COUNTS_PER_REV);
+    }
+
+    void write(double power)
+    {
+        talon.set(ControlMode.PercentOutput,power);
+    }
+
+    void zeroPosition()
+    {
+        talon.setSelectedSensorPosition(0);
+    }
+}
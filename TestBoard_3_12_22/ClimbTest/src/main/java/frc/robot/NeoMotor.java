@@ -0,0 +1,54 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  NeoMotor.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  RobotMotor on a NEO (Spark MAX), using the hall
+//            sensor encoder.
+//
+//  Remarks:  The Spark MAX encoder already reports revolutions and
+//            RPM, so nothing is converted here.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+
+class NeoMotor extends CachedMotor {
+
+    private final CANSparkMax spark;
+    private final RelativeEncoder encoder;
+
+    NeoMotor(CANSparkMax spark,RelativeEncoder encoder,String name)
+    {
+        super(name);
+        this.spark=spark;
+        this.encoder=encoder;
+    }
+
+    CANSparkMax getSpark()
+    {
+        return(spark);
+    }
+
+    double readPosition()
+    {
+        return(encoder.getPosition());
+    }
+
+    double readVelocity()
+    {
+        return(encoder.getVelocity());
+    }
+
+    void write(double power)
+    {
+        spark.set(power);
+    }
+
+    void zeroPosition()
+    {
+        encoder.setPosition(0.0);
+    }
+}
@@ -38,6 +38,7 @@ int update_counter=0;
     climb=new Climb();
 
     shooter=new Shooter();
+    shooter.setNEOcontrolMode(shooter.NEO_CLOSED_LOOP);
 
     stick = new Joystick(0);
 
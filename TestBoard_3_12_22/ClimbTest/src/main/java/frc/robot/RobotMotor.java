@@ -0,0 +1,63 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  RobotMotor.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  Vendor neutral view of a brushless motor with an
+//            integrated encoder, so a control loop can be written
+//            once and run on either a Falcon (TalonFX) or a NEO
+//            (Spark MAX).  See FalconMotor and NeoMotor.
+//
+//  Remarks:  Units are the same for every motor:  position in
+//            revolutions and velocity in RPM, of the motor shaft
+//            or, after setReduction(), of the mechanism it drives.
+//
+//            Reads are cached.  refresh() reads position and
+//            velocity once, the getters return those values until
+//            the next refresh(), so a loop that looks at the speed
+//            several times costs one CAN read per tick.
+//
+//            Writes are batched.  setOutput() only stores the
+//            power, flush() sends it, and only if it changed since
+//            the last write.  CachedMotor implements the caching,
+//            FalconMotor and NeoMotor only the vendor calls.
+//
+//            Only the test board uses it so far.  Each robot
+//            project builds on its own, so another project would
+//            take a copy of these files.
+//
+//  Inception:  3/12/2022 test board, Falcon on CAN 6 and NEO on 2.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+interface RobotMotor {
+
+    //  Reads position and velocity into the cache, zero on success
+    int refresh();
+
+    //  Cached values from the last refresh()
+    double getPosition();     //  revolutions
+    double getVelocity();     //  RPM
+
+    //  Stores the fractional power (-1,1) to be sent by flush()
+    int setOutput(double power);
+    double getOutput();
+
+    //  Sends the stored power if it changed, returns 1 if written
+    int flush();
+
+    //  Forgets the last write so the next flush() always sends.
+    //  Needed after anything writes the controller directly.
+    int invalidate();
+
+    //  Zeroes the encoder position
+    int resetPosition();
+
+    //  Gear reduction between the motor and the mechanism, e.g.
+    //  200.0 for the climb.  Positions and velocities are divided
+    //  by it.  Defaults to 1.0.
+    int setReduction(double ratio);
+
+    String getName();
+}
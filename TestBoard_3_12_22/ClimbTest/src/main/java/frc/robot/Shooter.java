@@ -20,6 +20,11 @@
 //
 //  Inception:  3/12/2022
 //
+//              The NEO can also be run closed loop on the Spark
+//              MAX's own velocity PID (setNEOcontrolMode()), with
+//              neos_encoder as feedback.  setNEOspeed() then only
+//              sends the RPM target and reports the error, and
+//              isNEOready() says when the wheel is at speed.
 //
 //////////////////////////////////////////////////////////////////////
 //////////////////////////////////////////////////////////////////////
@@ -27,15 +32,23 @@
 package frc.robot;
 
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.ControlType;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 import com.revrobotics.SparkMaxRelativeEncoder;
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
 
 public class Shooter extends Robot {
 
 
     CANSparkMax neo;
     RelativeEncoder neos_encoder;
+    SparkMaxPIDController neo_pid;
+
+    //  Vendor neutral view of the NEO and the shared open loop
+    //  speed control, see RobotMotor and VelocityLoop.
+    NeoMotor neo_motor;
+    VelocityLoop neo_loop;
 
     Delay delay;
 
@@ -48,14 +61,154 @@ public class Shooter extends Robot {
 
     int neo_init=1;
 
+    //  Control modes for setNEOspeed()
+    final int NEO_OPEN_LOOP = 0;     //  power steps from this class
+    final int NEO_CLOSED_LOOP = 1;   //  Spark MAX velocity PID
+    int neo_control_mode=NEO_OPEN_LOOP;
+
+    //  Spark MAX velocity gains, output is fractional power and
+    //  the error is in RPM.  kFF is one over the NEO free speed
+    //  of 5676 RPM so the feedforward alone lands close to the
+    //  target and the P term only trims.
+    double neo_kP=6.0e-5;
+    double neo_kI=0.0;
+    double neo_kD=0.0;
+    double neo_kFF=1.0/5676.0;
+
+    //  Readiness:  the speed must be inside neo_tolerance for
+    //  NEO_READY_COUNT calls in a row.
+    double neo_tolerance=NEO_deadband;
+    private final int NEO_READY_COUNT=3;
+    int neo_ready_count=0;
+    Boolean neo_ready=false;
+    double neo_target=0.0;
+    long neo_start_time=0;
+    double neo_spinup_time=0.0;   //  msec
+
     //  constructor
     Shooter()
     {
        neo = new CANSparkMax(2, MotorType.kBrushless);
        neos_encoder= neo.getEncoder(SparkMaxRelativeEncoder.Type.kHallSensor,42);
+       neo_pid=neo.getPIDController();
+       neo_motor=new NeoMotor(neo,neos_encoder,"shooter");
+       neo_loop=new VelocityLoop(neo_motor,neo_power,NEO_deadband,0.001,0.005,0.01);
+       configNEOgains();
        delay=new Delay();
     }
 
+    /////////////////////////////////////////////////////////////////
+    //  Function:  int setNEOcontrolMode(int mode)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Selects open loop power steps or the Spark MAX
+    //            velocity PID for setNEOspeed().
+    //
+    //  Arguments:NEO_OPEN_LOOP or NEO_CLOSED_LOOP
+    //
+    //  Returns:  Zero on success, -1 for an unknown mode.
+    //
+    //  Remarks:  Switching modes restarts the spin up.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    public int setNEOcontrolMode(int mode)
+    {
+      if((mode!=NEO_OPEN_LOOP)&&(mode!=NEO_CLOSED_LOOP))  {
+        return(-1);
+      }
+      neo_control_mode=mode;
+      neo_target=0.0;   //  the next setNEOspeed() starts over
+      resetNEOready();
+      return(0);
+    }
+
+    public int getNEOcontrolMode()
+    {
+      return(neo_control_mode);
+    }
+
+    //  Sets and sends the velocity gains
+    public int setNEOgains(double kP,double kI,double kD,double kFF)
+    {
+      neo_kP=kP;
+      neo_kI=kI;
+      neo_kD=kD;
+      neo_kFF=kFF;
+      return(configNEOgains());
+    }
+
+    private int configNEOgains()
+    {
+      neo_pid.setP(neo_kP);
+      neo_pid.setI(neo_kI);
+      neo_pid.setD(neo_kD);
+      neo_pid.setFF(neo_kFF);
+      neo_pid.setOutputRange(-1.0,1.0);
+      return(0);
+    }
+
+    public int setNEOtolerance(double rpm)
+    {
+      neo_tolerance=rpm;
+      return(0);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  Boolean isNEOready()
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  Reports whether the shooter is at the target set
+    //            by the last setNEOspeed() call.
+    //
+    //  Arguments:void
+    //
+    //  Returns:  true once the speed has been inside neo_tolerance
+    //            for NEO_READY_COUNT calls of setNEOspeed() in a
+    //            row.  It stays true until the target changes or
+    //            the motor is turned off, so a ball going through
+    //            does not clear it.
+    //
+    //  Remarks:  The spin up time is kept in getNEOspinUpTime().
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    public Boolean isNEOready()
+    {
+      return(neo_ready);
+    }
+
+    //  Time from the first setNEOspeed() to ready, in msec
+    public double getNEOspinUpTime()
+    {
+      return(neo_spinup_time);
+    }
+
+    private void resetNEOready()
+    {
+      neo_ready=false;
+      neo_ready_count=0;
+      neo_start_time=System.nanoTime();
+      neo_spinup_time=0.0;
+    }
+
+    private void updateNEOready(double error)
+    {
+      if(neo_ready==true)  {
+        return;
+      }
+      if(Math.abs(error)<neo_tolerance)  {
+        neo_ready_count++;
+      }  else  {
+        neo_ready_count=0;
+      }
+      if(neo_ready_count>=NEO_READY_COUNT)  {
+        neo_ready=true;
+        neo_spinup_time=(double)(System.nanoTime()-neo_start_time)/1e6;
+        System.out.printf("NEO at %.1f RPM in %.1f msec\n",neo_target,neo_spinup_time);
+      }
+    }
+
     /////////////////////////////////////////////////////////////////
     //  Function:  double setNEOspeed(double target)
     /////////////////////////////////////////////////////////////////
@@ -69,6 +222,16 @@ public class Shooter extends Robot {
     //
     //  Remarks:  The NEO encoder returns RPM when read for velocity.  
     //
+    //            In NEO_OPEN_LOOP mode this is one step of
+    //            neo_loop, which keeps its power between calls
+    //            (and across setNEOoff()) so the next spin up
+    //            starts from the last one.
+    //
+    //            In NEO_CLOSED_LOOP mode the target is sent to the
+    //            Spark MAX, which runs its own PID at 1 kHz.  There
+    //            is no delay here, the error is that of the last
+    //            encoder reading.
+    //
     //  3/8/22:  Tested appears to work.  Refinement would be
     //           to adjust the power increment depending on the
     //           size of the calculated error.
@@ -84,51 +247,46 @@ public class Shooter extends Robot {
         int debug=0;  //  set to '1' if screen printouts are wanted.
         double error;
         double speed;
+        Boolean new_target=false;
+
+        if(target!=neo_target)  {
+          neo_target=target;
+          resetNEOready();
+          new_target=true;
+        }
+
+        if(neo_control_mode==NEO_CLOSED_LOOP)  {
+          if(new_target==true)  {
+            neo_pid.setReference(target,ControlType.kVelocity);
+
+            //  The velocity PID now drives the Spark MAX, not the
+            //  power neo_motor last wrote, so the next open loop
+            //  flush() must always send.
+            neo_motor.invalidate();
+          }
+          neo_motor.refresh();
+          speed=neo_motor.getVelocity();
+          error=target-speed;
+          updateNEOready(error);
+          if(debug==1) {
+            System.out.printf("NEO speed = %.3f RPM  ",speed);
+            System.out.printf("NEO output = %.3f\n",neo.getAppliedOutput());
+          }
+          return(error);
+        }
        
         if(neo_init==1)  {
-          if(target<0.0)neo_power*=-1.0;
-          neo.set(neo_power);
+          neo_loop.reset();
           neo_init=0;
         }
         delay.delay_milliseconds(20.0);
-        speed=neos_encoder.getVelocity();
-        error=target-speed;
-
-        if(Math.abs(error)>NEO_deadband)  {
-            error=target-speed;
-            if(error>0.0)  {
-              if(error>300.0) {
-                neo_power+=0.01;
-              }  else if((error>100.0)&&(error<300.0)) {
-                neo_power+=0.005;
-              }  else if((error>NEO_deadband)&&(error<100.0)) {
-                neo_power+=0.001;
-              }  else {
-                ;
-              }
-           
-            } else if(error<0.0)  {
-              if(error<-300.0) {
-                neo_power-=0.01;
-              }  else if((error<-100.0)&&(error>-300.0)) {
-                neo_power-=0.005;
-              }  else if((error<-NEO_deadband)&&(error>-100.0)) {
-                neo_power-=0.001;
-              }  else {
-                ;
-              }
-            }
-            neo.set(neo_power);
-            delay.delay_milliseconds(20.0);
-            speed=neos_encoder.getVelocity();
-        }  else  {
-          neo.set(neo_power);
-          delay.delay_milliseconds(20.0);
-          speed=neos_encoder.getVelocity();
-        }
+        error=neo_loop.update(target);
+        speed=neo_motor.getVelocity();
+
+        updateNEOready(error);
         if(debug==1) {
           System.out.printf("NEO speed = %.3f RPM  ",speed);
-          System.out.printf("NEO power = %.3f\n",neo_power);
+          System.out.printf("NEO power = %.3f\n",neo_loop.getPower());
         }
         return(error);
     }
@@ -136,6 +294,9 @@ public class Shooter extends Robot {
     public int setNEOoff()
     {
       neo.set(0.0);
+      neo_motor.invalidate();
+      neo_target=0.0;
+      resetNEOready();
       return(0);
     }
 
@@ -0,0 +1,132 @@
+/////////////////////////////////////////////////////////////////////
+//  File:  VelocityLoop.java
+/////////////////////////////////////////////////////////////////////
+//
+//  Purpose:  The proportional tree speed control that was written
+//            twice, as Climb.setFALCONspeed() and
+//            Shooter.setNEOspeed(), written once against RobotMotor
+//            so it runs on either motor.
+//
+//  Remarks:  Each update() is one refresh(), one correction and at
+//            most one write, the same cost on a Falcon or a NEO.
+//            update() does not delay.  The 20msec between a write
+//            and the next read (see the 3/9/22 note in Shooter)
+//            is left to the caller.
+//
+//            Outside the deadband the power is stepped by
+//            large_step when the error is over 300 RPM, by
+//            medium_step over 100 RPM, and by small_step
+//            otherwise.
+//
+/////////////////////////////////////////////////////////////////////
+/////////////////////////////////////////////////////////////////////
+package frc.robot;
+
+class VelocityLoop {
+
+    private final RobotMotor motor;
+
+    private final double start_power;
+    private final double deadband;     //  RPM
+    private final double small_step;
+    private final double medium_step;
+    private final double large_step;
+
+    private double power;
+    private int init=1;
+
+    VelocityLoop(RobotMotor motor,double start_power,double deadband,
+                 double small_step,double medium_step,double large_step)
+    {
+        this.motor=motor;
+        this.start_power=Math.abs(start_power);
+        this.deadband=deadband;
+        this.small_step=small_step;
+        this.medium_step=medium_step;
+        this.large_step=large_step;
+    }
+
+    RobotMotor getMotor()
+    {
+        return(motor);
+    }
+
+    double getPower()
+    {
+        return(power);
+    }
+
+    //  The next update() starts again from start_power
+    int reset()
+    {
+        init=1;
+        return(0);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    //  Function:  double update(double target)
+    /////////////////////////////////////////////////////////////////
+    //
+    //  Purpose:  One step of the speed loop.
+    //
+    //  Arguments:Target velocity in RPM, negative for reverse.
+    //
+    //  Returns:  The error in RPM before this step's correction.
+    //
+    //  Remarks:  The first call after reset() writes start_power
+    //            with the sign of the target.
+    //
+    /////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////////////////////////////
+    double update(double target)
+    {
+        double error;
+
+        if(init==1)  {
+            power=start_power;
+            if(target<0.0)  {
+                power*=-1.0;
+            }
+            motor.invalidate();
+            motor.setOutput(power);
+            motor.flush();
+            init=0;
+            return(target);
+        }
+
+        motor.refresh();
+        error=target-motor.getVelocity();
+
+        power+=correction(error);
+        if(power>1.0)  {
+            power=1.0;
+        }  else if(power<-1.0)  {
+            power=-1.0;
+        }
+        motor.setOutput(power);
+        motor.flush();
+        return(error);
+    }
+
+    //  Power step for an error, zero inside the deadband
+    private double correction(double error)
+    {
+        double size=Math.abs(error);
+        double step;
+
+        if(size<=deadband)  {
+            return(0.0);
+        }
+        if(size>300.0)  {
+            step=large_step;
+        }  else if(size>100.0)  {
+            step=medium_step;
+        }  else  {
+            step=small_step;
+        }
+        if(error<0.0)  {
+            step*=-1.0;
+        }
+        return(step);
+    }
+}